@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Evaluates alert rules against price and gain changes of a portfolio.
+ * Rules are indexed by their bounds per symbol and metric, so a change only looks at the
+ * rules whose bounds lie between the old and the new value. The rules fired by one change
+ * are delivered to listeners together, asynchronously on a single dispatch thread.
+ */
+public class AlertEngine implements PortfolioListener {
+    private final Map<String, Map<AlertRule.Metric, BoundIndex>> indexes;  // Rule indexes by symbol
+    private final List<AlertListener> listeners;                           // Listeners receiving fired alerts
+    private final ExecutorService dispatcher;                              // Thread delivering alerts
+
+    /**
+     * Constructor to initialize an engine with no rules.
+     */
+    public AlertEngine() {
+        this.indexes = new HashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a listener that is notified when an alert fires.
+     * @param listener The listener to add.
+     */
+    public void addAlertListener(AlertListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added alert listener.
+     * @param listener The listener to remove.
+     */
+    public void removeAlertListener(AlertListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds an alert rule. If the watched value is already known and lies outside the
+     * rule's range, the rule fires immediately.
+     * @param rule The rule to add.
+     */
+    public synchronized void addRule(AlertRule rule) {
+        BoundIndex index = indexes.computeIfAbsent(rule.getSymbol(), s -> new EnumMap<>(AlertRule.Metric.class))
+            .computeIfAbsent(rule.getMetric(), m -> new BoundIndex());
+        index.add(rule);
+        if (!Double.isNaN(index.lastValue) && !rule.contains(index.lastValue)) {
+            List<AlertRule> fired = new ArrayList<>();
+            fired.add(rule);
+            dispatch(fired, index.lastValue);
+        }
+    }
+
+    /**
+     * Removes an alert rule.
+     * @param rule The rule to remove.
+     * @return True if the rule was registered.
+     */
+    public synchronized boolean removeRule(AlertRule rule) {
+        Map<AlertRule.Metric, BoundIndex> bySymbol = indexes.get(rule.getSymbol());
+        if (bySymbol == null) {
+            return false;
+        }
+        BoundIndex index = bySymbol.get(rule.getMetric());
+        return index != null && index.remove(rule);
+    }
+
+    /**
+     * Gets the number of registered rules.
+     * @return The number of rules.
+     */
+    public synchronized int getRuleCount() {
+        int count = 0;
+        for (Map<AlertRule.Metric, BoundIndex> bySymbol : indexes.values()) {
+            for (BoundIndex index : bySymbol.values()) {
+                count += index.size;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Feeds a new value of a metric for a symbol and fires every rule whose range it leaves.
+     * @param symbol The symbol whose value changed.
+     * @param metric The metric that changed.
+     * @param value The new value.
+     */
+    public synchronized void update(String symbol, AlertRule.Metric metric, double value) {
+        Map<AlertRule.Metric, BoundIndex> bySymbol = indexes.computeIfAbsent(symbol.toUpperCase(),
+            s -> new EnumMap<>(AlertRule.Metric.class));
+        BoundIndex index = bySymbol.computeIfAbsent(metric, m -> new BoundIndex());
+        List<AlertRule> fired = index.crossed(value);
+        index.lastValue = value;
+        if (!fired.isEmpty()) {
+            dispatch(fired, value);
+        }
+    }
+
+    @Override
+    public void investmentUpdated(Investment investment) {
+        update(investment.getSymbol(), AlertRule.Metric.PRICE, investment.getPrice());
+        update(investment.getSymbol(), AlertRule.Metric.GAIN_PERCENT, investment.getGainPercent());
+    }
+
+    @Override
+    public synchronized void investmentRemoved(Investment investment) {
+        // The gain of a holding that no longer exists is unknown until it is bought again
+        Map<AlertRule.Metric, BoundIndex> bySymbol = indexes.get(investment.getSymbol().toUpperCase());
+        if (bySymbol != null && bySymbol.containsKey(AlertRule.Metric.GAIN_PERCENT)) {
+            bySymbol.get(AlertRule.Metric.GAIN_PERCENT).lastValue = Double.NaN;
+        }
+    }
+
+    /**
+     * Stops the dispatch thread. Alerts that have already fired are still delivered.
+     */
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    // Hands the rules fired by one change to the dispatch thread as one batch
+    private void dispatch(List<AlertRule> fired, double value) {
+        List<AlertRule> batch = Collections.unmodifiableList(fired);
+        dispatcher.execute(() -> {
+            for (AlertListener listener : listeners) {
+                listener.alertsTriggered(batch, value);
+            }
+        });
+    }
+
+    /**
+     * Rules of one symbol and metric, indexed separately by their low and high bounds.
+     * A value leaves a range only by crossing one of its bounds, so a change from an old
+     * to a new value only needs the bounds between the two.
+     */
+    private static class BoundIndex {
+        private final TreeMap<Double, List<AlertRule>> lows = new TreeMap<>();   // Rules by finite low bound
+        private final TreeMap<Double, List<AlertRule>> highs = new TreeMap<>();  // Rules by finite high bound
+        private double lastValue = Double.NaN;                                  // Last known value, NaN if unknown
+        private int size;                                                        // Number of rules
+
+        void add(AlertRule rule) {
+            if (!Double.isInfinite(rule.getLow())) {
+                lows.computeIfAbsent(rule.getLow(), b -> new ArrayList<>()).add(rule);
+            }
+            if (!Double.isInfinite(rule.getHigh())) {
+                highs.computeIfAbsent(rule.getHigh(), b -> new ArrayList<>()).add(rule);
+            }
+            size++;
+        }
+
+        boolean remove(AlertRule rule) {
+            boolean removed = removeFrom(lows, rule.getLow(), rule) | removeFrom(highs, rule.getHigh(), rule);
+            if (removed) {
+                size--;
+            }
+            return removed;
+        }
+
+        private static boolean removeFrom(TreeMap<Double, List<AlertRule>> bounds, double bound, AlertRule rule) {
+            List<AlertRule> rules = bounds.get(bound);
+            if (rules == null || !rules.remove(rule)) {
+                return false;
+            }
+            if (rules.isEmpty()) {
+                bounds.remove(bound);
+            }
+            return true;
+        }
+
+        /**
+         * Finds the rules whose range contained the last value but not the new one.
+         * Each rule is reported at most once, through the bound the new value went past.
+         */
+        List<AlertRule> crossed(double value) {
+            List<AlertRule> fired = new ArrayList<>();
+            if (Double.isNaN(lastValue)) {
+                // No previous value: every rule the value is outside of fires
+                collect(lows.tailMap(value, false), fired, false);
+                collect(highs.headMap(value, false), fired, false);
+            } else if (value < lastValue) {
+                collect(lows.subMap(value, false, lastValue, true), fired, true);
+            } else if (value > lastValue) {
+                collect(highs.subMap(lastValue, true, value, false), fired, true);
+            }
+            return fired;
+        }
+
+        private void collect(NavigableMap<Double, List<AlertRule>> bounds, List<AlertRule> fired,
+                             boolean requireInsideBefore) {
+            for (List<AlertRule> rules : bounds.values()) {
+                for (AlertRule rule : rules) {
+                    if (!requireInsideBefore || rule.contains(lastValue)) {
+                        fired.add(rule);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+import java.util.List;
+
+/**
+ * Receives alerts fired by an AlertEngine.
+ * Alerts are delivered on the engine's dispatch thread, never on the thread that changed the price.
+ */
+public interface AlertListener {
+
+    /**
+     * Called once for every change that fires alerts, with all the rules it fired, so a change
+     * crossing many bounds is delivered as one batch.
+     * 
+     * @param rules the rules that fired, never empty
+     * @param value the value that fell outside the rules' bounds
+     */
+    void alertsTriggered(List<AlertRule> rules, double value);
+}
@@ -0,0 +1,89 @@
+/**
+ * This class represents an alert rule on a single symbol.
+ * A rule fires when the watched value leaves the range [low, high].
+ * Either bound may be infinite, e.g. "gain drops below -5%" is the range [-5, +infinity].
+ */
+public class AlertRule {
+
+    /**
+     * The value of a holding that an alert rule watches.
+     */
+    public enum Metric {
+        PRICE("Price"),
+        GAIN_PERCENT("Gain %");
+
+        private final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final String symbol;  // Symbol of the watched investment
+    private final Metric metric;  // Value being watched
+    private final double low;     // Lowest value still inside the range
+    private final double high;    // Highest value still inside the range
+
+    /**
+     * Constructor for creating an alert rule.
+     * 
+     * @param symbol the symbol of the investment to watch
+     * @param metric the value to watch
+     * @param low the lower bound of the range (may be negative infinity)
+     * @param high the upper bound of the range (may be positive infinity)
+     * @throws IllegalArgumentException if the symbol is empty or the bounds do not form a range
+     */
+    public AlertRule(String symbol, Metric metric, double low, double high) {
+        if (symbol == null || symbol.trim().isEmpty()) {
+            throw new IllegalArgumentException("Symbol must not be empty.");
+        }
+        if (Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            throw new IllegalArgumentException("Low bound must not be greater than high bound.");
+        }
+        if (Double.isInfinite(low) && Double.isInfinite(high)) {
+            throw new IllegalArgumentException("At least one bound must be set.");
+        }
+        this.symbol = symbol.trim().toUpperCase();
+        this.metric = metric;
+        this.low = low;
+        this.high = high;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    /**
+     * Checks whether a value lies inside the range of this rule.
+     * 
+     * @param value the value to check
+     * @return true if the value is inside [low, high]
+     */
+    public boolean contains(double value) {
+        return value >= low && value <= high;
+    }
+
+    @Override
+    public String toString() {
+        String lowText = Double.isInfinite(low) ? "-inf" : String.format("%.2f", low);
+        String highText = Double.isInfinite(high) ? "+inf" : String.format("%.2f", high);
+        return symbol + " " + metric + " outside [" + lowText + ", " + highText + "]";
+    }
+}
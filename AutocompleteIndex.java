@@ -0,0 +1,160 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Suggests instruments for a typed prefix of a symbol or of a word in the name.
+ * Holdings of the portfolio are suggested first, followed by the security master; within
+ * each, symbol matches come before name matches. Held instruments are kept current as a
+ * PortfolioListener. The security master is a compact immutable PrefixIndex that can be
+ * replaced by loading a file, without blocking lookups.
+ */
+public class AutocompleteIndex implements PortfolioListener {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final TreeMap<String, Instrument> heldSymbols;  // Held instruments by upper-case symbol
+    private final TreeMap<String, Instrument> heldNames;    // Held instruments by name word + '\0' + symbol
+    private volatile PrefixIndex masterSymbols;             // Security master by symbol
+    private volatile PrefixIndex masterNames;               // Security master by name word
+
+    /**
+     * Constructor to initialize an index with no holdings and an empty security master.
+     */
+    public AutocompleteIndex() {
+        this.heldSymbols = new TreeMap<>();
+        this.heldNames = new TreeMap<>();
+        setSecurityMaster(new ArrayList<>());
+    }
+
+    /**
+     * Replaces the security master.
+     * @param instruments All instruments of the security master.
+     */
+    public void setSecurityMaster(List<Instrument> instruments) {
+        List<String> symbolKeys = new ArrayList<>();
+        List<Instrument> symbolInstruments = new ArrayList<>();
+        List<String> nameKeys = new ArrayList<>();
+        List<Instrument> nameInstruments = new ArrayList<>();
+        for (Instrument instrument : instruments) {
+            symbolKeys.add(instrument.getSymbol().toUpperCase());
+            symbolInstruments.add(instrument);
+            for (String word : words(instrument.getName())) {
+                nameKeys.add(word);
+                nameInstruments.add(instrument);
+            }
+        }
+        PrefixIndex symbols = PrefixIndex.build(symbolKeys, symbolInstruments);
+        PrefixIndex names = PrefixIndex.build(nameKeys, nameInstruments);
+        synchronized (this) {
+            masterSymbols = symbols;
+            masterNames = names;
+        }
+    }
+
+    /**
+     * Loads the security master from a file with one "symbol,name" line per instrument.
+     * Blank lines, lines starting with '#' and a "symbol,name" header are skipped.
+     * @param file The file to load.
+     * @return The number of instruments loaded.
+     * @throws IOException if the file cannot be read.
+     */
+    public int loadSecurityMaster(Path file) throws IOException {
+        List<Instrument> instruments = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int comma = line.indexOf(',');
+                if (line.isEmpty() || line.startsWith("#") || comma <= 0 || line.equalsIgnoreCase("symbol,name")) {
+                    continue;
+                }
+                instruments.add(new Instrument(line.substring(0, comma).trim().toUpperCase(),
+                    line.substring(comma + 1).trim()));
+            }
+        }
+        setSecurityMaster(instruments);
+        return instruments.size();
+    }
+
+    /**
+     * Gets the best matches for a prefix of a symbol or of a word in the name.
+     * @param prefix The typed text.
+     * @param limit The maximum number of suggestions.
+     * @return Up to limit instruments, each symbol at most once.
+     */
+    public List<Instrument> suggest(String prefix, int limit) {
+        List<Instrument> suggestions = new ArrayList<>();
+        String key = prefix.trim().toUpperCase();
+        if (key.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        Set<String> seen = new HashSet<>();
+
+        PrefixIndex symbols;
+        PrefixIndex names;
+        synchronized (this) {
+            collect(heldSymbols.tailMap(key, true), key, limit, seen, suggestions);
+            collect(heldNames.tailMap(key, true), key, limit, seen, suggestions);
+            symbols = masterSymbols;
+            names = masterNames;
+        }
+        symbols.collect(key, limit, seen, suggestions);
+        names.collect(key, limit, seen, suggestions);
+        return suggestions;
+    }
+
+    @Override
+    public synchronized void investmentUpdated(Investment investment) {
+        String symbol = investment.getSymbol().toUpperCase();
+        if (!heldSymbols.containsKey(symbol)) {
+            Instrument instrument = new Instrument(symbol, investment.getName());
+            heldSymbols.put(symbol, instrument);
+            for (String word : words(investment.getName())) {
+                heldNames.put(word + '\0' + symbol, instrument);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void investmentRemoved(Investment investment) {
+        Instrument instrument = heldSymbols.remove(investment.getSymbol().toUpperCase());
+        if (instrument != null) {
+            for (String word : words(instrument.getName())) {
+                heldNames.remove(word + '\0' + instrument.getSymbol());
+            }
+        }
+    }
+
+    // Adds held instruments whose key starts with the prefix, in key order
+    private static void collect(Map<String, Instrument> tail, String prefix, int limit,
+                                Set<String> seen, List<Instrument> suggestions) {
+        for (Map.Entry<String, Instrument> entry : tail.entrySet()) {
+            if (suggestions.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                return;
+            }
+            if (seen.add(entry.getValue().getSymbol())) {
+                suggestions.add(entry.getValue());
+            }
+        }
+    }
+
+    // Splits a name into upper-case words
+    private static List<String> words(String name) {
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(name.toUpperCase())) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+
+/**
+ * Values many holdings at once without a virtual getGain() call per holding.
+ * The gain formulas of the built-in types are linear in market value and book value, so
+ * a single pass only has to add up those two primitive sums and a count per concrete type.
+ * That pass uses only the non-virtual getters of Investment, which keeps the loop
+ * monomorphic however many types exist. Each type provides its formula as a kernel through
+ * Investment.getGainKernel(), the same kernel its getGain() uses, and the kernel is applied
+ * once to the type's sums. Types without a kernel fall back to calling getGain().
+ */
+public final class BatchValuation {
+
+    /**
+     * Applies the gain formula of one investment type to the sums of its holdings.
+     */
+    interface GainKernel {
+
+        /**
+         * Calculates the total gain of a group of holdings of the same type.
+         *
+         * @param marketValue the sum of quantity times price over the group
+         * @param bookValue the sum of book values over the group
+         * @param count the number of holdings in the group
+         * @return the total gain of the group
+         */
+        double totalGain(double marketValue, double bookValue, int count);
+    }
+
+    private BatchValuation() {
+    }
+
+    /**
+     * Calculates the total gain of a collection of holdings.
+     * @param investments The holdings to value.
+     * @return The sum of the gains of all holdings.
+     */
+    public static double totalGain(Iterable<Investment> investments) {
+        // Per-type kernels and sums, looked up by identity in small arrays since there are only a few types
+        Class<?>[] types = new Class<?>[4];
+        GainKernel[] kernels = new GainKernel[types.length];
+        double[] marketValues = new double[types.length];
+        double[] bookValues = new double[types.length];
+        int[] counts = new int[types.length];
+        int typeCount = 0;
+        double fallbackGain = 0.0;
+
+        // Add up market and book values per type in one pass
+        for (Investment investment : investments) {
+            Class<?> type = investment.getClass();
+            int slot = 0;
+            while (slot < typeCount && types[slot] != type) {
+                slot++;
+            }
+            if (slot == typeCount) {
+                // First holding of this type: ask it for its kernel once
+                if (typeCount == types.length) {
+                    types = Arrays.copyOf(types, typeCount * 2);
+                    kernels = Arrays.copyOf(kernels, typeCount * 2);
+                    marketValues = Arrays.copyOf(marketValues, typeCount * 2);
+                    bookValues = Arrays.copyOf(bookValues, typeCount * 2);
+                    counts = Arrays.copyOf(counts, typeCount * 2);
+                }
+                types[typeCount] = type;
+                kernels[typeCount] = investment.getGainKernel();
+                typeCount++;
+            }
+            if (kernels[slot] == null) {
+                fallbackGain += investment.getGain();
+                continue;
+            }
+            marketValues[slot] += investment.getQuantity() * investment.getPrice();
+            bookValues[slot] += investment.getBookValue();
+            counts[slot]++;
+        }
+
+        // Apply each type's formula to its sums
+        double totalGain = fallbackGain;
+        for (int slot = 0; slot < typeCount; slot++) {
+            if (kernels[slot] != null) {
+                totalGain += kernels[slot].totalGain(marketValues[slot], bookValues[slot], counts[slot]);
+            }
+        }
+        return totalGain;
+    }
+
+    /**
+     * Creates a kernel for types whose gain is market value less book value less a fixed fee,
+     * like Stock, MutualFund and ETF.
+     * @param fee The fee subtracted from each holding's gain.
+     * @return The kernel.
+     */
+    static GainKernel fixedFeeKernel(double fee) {
+        return (marketValue, bookValue, count) -> marketValue - bookValue - fee * count;
+    }
+
+    /**
+     * Creates a kernel for types whose gain is market value less a fee proportional to it
+     * less book value, like Bond.
+     * @param feeRate The fee as a fraction of market value.
+     * @return The kernel.
+     */
+    static GainKernel proportionalFeeKernel(double feeRate) {
+        return (marketValue, bookValue, count) -> marketValue * (1 - feeRate) - bookValue;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * This class represents a Bond investment.
+ * It extends the Investment class and calculates its book value and gain accordingly.
+ * Unlike stocks and funds, bonds pay a fee proportional to the traded amount.
+ */
+public class Bond extends Investment {
+    private static final double FEE_RATE = 0.005; // Bond trading fee, as a fraction of the traded amount
+    private static final BatchValuation.GainKernel GAIN_KERNEL =
+        BatchValuation.proportionalFeeKernel(FEE_RATE); // Gain formula, also used by BatchValuation
+
+    /**
+     * Constructor for creating a Bond object.
+     * 
+     * @param symbol the symbol of the bond
+     * @param name the name of the bond
+     * @param quantity the number of bonds
+     * @param price the price per bond
+     */
+    public Bond(String symbol, String name, int quantity, double price) {
+        super(symbol, name, quantity, price);
+        this.bookValue = calculateBookValue(quantity, price);
+    }
+
+    /**
+     * Gets the type of investment (Bond).
+     * 
+     * @return the string representing the investment type
+     */
+    @Override
+    public String getType() {
+        return "Bond";
+    }
+
+    /**
+     * Calculates the book value of the bond, including the trading fee.
+     * 
+     * @param quantity the number of bonds
+     * @param price the price per bond
+     * @return the calculated book value
+     */
+    @Override
+    public double calculateBookValue(int quantity, double price) {
+        return (quantity * price) * (1 + FEE_RATE);
+    }
+
+    /**
+     * Calculates the gain for this bond investment, net of the fee for selling it.
+     * 
+     * @return the calculated gain
+     */
+    @Override
+    public double getGain() {
+        return GAIN_KERNEL.totalGain(quantity * price, bookValue, 1);
+    }
+
+    /**
+     * Gets the gain formula of bonds, which getGain() also uses.
+     * A subclass may override getGain(), so it is valued one by one instead.
+     * 
+     * @return the gain kernel, or null for a subclass
+     */
+    @Override
+    BatchValuation.GainKernel getGainKernel() {
+        return getClass() == Bond.class ? GAIN_KERNEL : null;
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * This class represents a corporate action on one symbol, such as a split or a dividend.
+ * Every action has an ID that is unique across all actions; a portfolio applies each ID at
+ * most once, which makes applying or replaying the same action again harmless.
+ */
+public class CorporateAction {
+
+    /**
+     * The kind of corporate action.
+     */
+    public enum Type {
+        SPLIT,
+        REVERSE_SPLIT,
+        STOCK_DIVIDEND,
+        CASH_DIVIDEND,
+        MERGER
+    }
+
+    private static final String SEPARATOR = "|";  // Field separator of the journal format
+
+    private final String id;          // Unique ID of the action
+    private final Type type;          // Kind of action
+    private final String symbol;      // Symbol the action applies to
+    private final double ratio;       // New units per old unit (1 for cash dividends)
+    private final double amount;      // Cash per unit (cash dividends only)
+    private final String newSymbol;   // Symbol after a merger, otherwise null
+    private final String newName;     // Name after a merger, otherwise null
+
+    private CorporateAction(String id, Type type, String symbol, double ratio, double amount,
+                            String newSymbol, String newName) {
+        requireText(id, "ID");
+        requireText(symbol, "Symbol");
+        if (!(ratio > 0) || Double.isInfinite(ratio)) {
+            throw new IllegalArgumentException("Ratio must be a positive value.");
+        }
+        if (!(amount >= 0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must not be negative.");
+        }
+        if (type == Type.MERGER) {
+            requireText(newSymbol, "New symbol");
+            requireText(newName, "New name");
+        }
+        this.id = id.trim();
+        this.type = type;
+        this.symbol = symbol.trim().toUpperCase();
+        this.ratio = ratio;
+        this.amount = amount;
+        this.newSymbol = newSymbol == null ? null : newSymbol.trim().toUpperCase();
+        this.newName = newName == null ? null : newName.trim();
+    }
+
+    /**
+     * Creates a forward split, e.g. 3-for-2 gives 3 new units for every 2 held.
+     *
+     * @param id the unique ID of the action
+     * @param symbol the symbol being split
+     * @param newUnits the units after the split
+     * @param oldUnits the units before the split
+     * @return the action
+     */
+    public static CorporateAction split(String id, String symbol, int newUnits, int oldUnits) {
+        if (newUnits <= oldUnits || oldUnits <= 0) {
+            throw new IllegalArgumentException("A split must increase the number of units.");
+        }
+        return new CorporateAction(id, Type.SPLIT, symbol, (double) newUnits / oldUnits, 0, null, null);
+    }
+
+    /**
+     * Creates a reverse split, e.g. 1-for-10 gives 1 new unit for every 10 held.
+     *
+     * @param id the unique ID of the action
+     * @param symbol the symbol being consolidated
+     * @param newUnits the units after the reverse split
+     * @param oldUnits the units before the reverse split
+     * @return the action
+     */
+    public static CorporateAction reverseSplit(String id, String symbol, int newUnits, int oldUnits) {
+        if (newUnits >= oldUnits || newUnits <= 0) {
+            throw new IllegalArgumentException("A reverse split must decrease the number of units.");
+        }
+        return new CorporateAction(id, Type.REVERSE_SPLIT, symbol, (double) newUnits / oldUnits, 0, null, null);
+    }
+
+    /**
+     * Creates a stock dividend paying extra units, e.g. 5 percent gives 5 new units per 100 held.
+     *
+     * @param id the unique ID of the action
+     * @param symbol the symbol paying the dividend
+     * @param percent the extra units per 100 held
+     * @return the action
+     */
+    public static CorporateAction stockDividend(String id, String symbol, double percent) {
+        if (!(percent > 0)) {
+            throw new IllegalArgumentException("Dividend percent must be a positive value.");
+        }
+        return new CorporateAction(id, Type.STOCK_DIVIDEND, symbol, 1 + percent / 100, 0, null, null);
+    }
+
+    /**
+     * Creates a cash dividend. Holdings are unchanged; the payout is reported.
+     *
+     * @param id the unique ID of the action
+     * @param symbol the symbol paying the dividend
+     * @param amountPerUnit the cash paid per unit held
+     * @return the action
+     */
+    public static CorporateAction cashDividend(String id, String symbol, double amountPerUnit) {
+        if (!(amountPerUnit > 0)) {
+            throw new IllegalArgumentException("Dividend amount must be a positive value.");
+        }
+        return new CorporateAction(id, Type.CASH_DIVIDEND, symbol, 1, amountPerUnit, null, null);
+    }
+
+    /**
+     * Creates a merger that converts every unit of one symbol into units of another.
+     *
+     * @param id the unique ID of the action
+     * @param symbol the symbol being acquired
+     * @param newSymbol the symbol of the surviving instrument
+     * @param newName the name of the surviving instrument
+     * @param ratio the new units received per old unit
+     * @return the action
+     */
+    public static CorporateAction merger(String id, String symbol, String newSymbol, String newName, double ratio) {
+        if (symbol != null && symbol.trim().equalsIgnoreCase(newSymbol == null ? "" : newSymbol.trim())) {
+            throw new IllegalArgumentException("A merger must change the symbol.");
+        }
+        return new CorporateAction(id, Type.MERGER, symbol, ratio, 0, newSymbol, newName);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getNewSymbol() {
+        return newSymbol;
+    }
+
+    public String getNewName() {
+        return newName;
+    }
+
+    /**
+     * Formats this action as one journal field list, readable by parse().
+     *
+     * @return the journal form of this action
+     */
+    public String toJournalString() {
+        return String.join(SEPARATOR, id, type.name(), symbol, Double.toString(ratio), Double.toString(amount),
+            newSymbol == null ? "" : newSymbol, newName == null ? "" : newName);
+    }
+
+    /**
+     * Parses an action from its journal form.
+     *
+     * @param text the journal form written by toJournalString()
+     * @return the action
+     * @throws IllegalArgumentException if the text is not a valid action
+     */
+    public static CorporateAction parse(String text) {
+        String[] fields = text.split("\\|", -1);
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("Invalid corporate action: " + text);
+        }
+        try {
+            return new CorporateAction(fields[0], Type.valueOf(fields[1]), fields[2],
+                Double.parseDouble(fields[3]), Double.parseDouble(fields[4]),
+                fields[5].isEmpty() ? null : fields[5], fields[6].isEmpty() ? null : fields[6]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid corporate action: " + text, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case CASH_DIVIDEND:
+                return id + ": " + symbol + " cash dividend of " + String.format("%.4f", amount) + " per unit";
+            case MERGER:
+                return id + ": " + symbol + " merged into " + newSymbol + " at " + ratio + " per unit";
+            default:
+                return id + ": " + symbol + " " + type.name().toLowerCase().replace('_', ' ') + " at " + ratio + " per unit";
+        }
+    }
+
+    // Rejects empty text and text that would break the journal format
+    private static void requireText(String text, String field) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException(field + " must not be empty.");
+        }
+        if (text.contains(SEPARATOR) || text.contains("\n") || text.contains("\r")) {
+            throw new IllegalArgumentException(field + " must not contain '|' or line breaks.");
+        }
+    }
+}
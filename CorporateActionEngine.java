@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies batches of corporate actions to many accounts at once.
+ * Accounts are processed in parallel; within an account the batch is journaled first and then
+ * applied as one atomic change. A batch the account rejects is marked in the journal. Since a
+ * portfolio applies each action ID only once, running a batch again, or replaying the journal,
+ * leaves already processed accounts unchanged.
+ */
+public class CorporateActionEngine {
+
+    /**
+     * The key under which replay reports journal lines it could not read. Account IDs are
+     * never empty, so it cannot clash with an account.
+     */
+    public static final String JOURNAL_KEY = "";
+
+    private final CorporateActionJournal journal;  // Record of applied batches
+
+    /**
+     * Constructor for creating an engine that journals to the given journal.
+     * 
+     * @param journal the journal recording applied batches
+     */
+    public CorporateActionEngine(CorporateActionJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Applies a batch of actions to every account, in parallel across accounts.
+     * An account for which the batch fails, or cannot be journaled, is left unchanged and
+     * reports the error.
+     * @param actions The actions to apply, in order.
+     * @param accounts The accounts by account ID.
+     * @return The messages of each account.
+     */
+    public Map<String, List<String>> apply(List<CorporateAction> actions, Map<String, Portfolio> accounts) {
+        Map<String, List<String>> results = new ConcurrentHashMap<>();
+        accounts.entrySet().parallelStream().forEach(account ->
+            results.put(account.getKey(), applyToAccount(account.getKey(), account.getValue(), actions)));
+        return results;
+    }
+
+    /**
+     * Re-applies every batch in the journal to the account it was recorded for, in parallel
+     * across accounts. Each batch is applied on its own, so one failing batch does not undo the
+     * others; rejected batches are left out. Actions an account has already applied are skipped.
+     * Journal lines that cannot be read, such as one torn by a crash, are skipped and reported
+     * under JOURNAL_KEY.
+     * @param accounts The accounts by account ID.
+     * @return The messages of each replayed account.
+     * @throws IOException if the journal cannot be read.
+     */
+    public Map<String, List<String>> replay(Map<String, Portfolio> accounts) throws IOException {
+        List<String> skipped = new ArrayList<>();
+        Map<String, List<CorporateActionJournal.Batch>> batchesByAccount = new LinkedHashMap<>();
+        for (CorporateActionJournal.Batch batch : journal.read(skipped)) {
+            if (!batch.isRejected() && accounts.containsKey(batch.getAccountId())) {
+                batchesByAccount.computeIfAbsent(batch.getAccountId(), account -> new ArrayList<>()).add(batch);
+            }
+        }
+
+        Map<String, List<String>> results = new ConcurrentHashMap<>();
+        if (!skipped.isEmpty()) {
+            results.put(JOURNAL_KEY, skipped);
+        }
+        batchesByAccount.entrySet().parallelStream().forEach(entry -> {
+            Portfolio portfolio = accounts.get(entry.getKey());
+            List<String> messages = new ArrayList<>();
+            synchronized (portfolio) {
+                for (CorporateActionJournal.Batch batch : entry.getValue()) {
+                    messages.addAll(applyBatch(portfolio, batch.getId(), batch.getActions()));
+                }
+            }
+            results.put(entry.getKey(), messages);
+        });
+        return results;
+    }
+
+    // Journals and then applies a batch under the account's lock, so the journal order matches the account.
+    // Writing ahead means an applied action is always journaled.
+    private List<String> applyToAccount(String accountId, Portfolio portfolio, List<CorporateAction> actions) {
+        synchronized (portfolio) {
+            List<CorporateAction> newActions = new ArrayList<>();
+            Set<String> newIds = new HashSet<>();
+            for (CorporateAction action : actions) {
+                if (!portfolio.hasAppliedCorporateAction(action.getId()) && newIds.add(action.getId())) {
+                    newActions.add(action);
+                }
+            }
+
+            String batchId = null;
+            try {
+                if (!newActions.isEmpty()) {
+                    batchId = journal.record(accountId, newActions);
+                }
+            } catch (IOException e) {
+                return Collections.singletonList("Error: Could not journal corporate actions: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                // The journal refuses account IDs it cannot store; only this account fails
+                return Collections.singletonList("Error: " + e.getMessage());
+            }
+            return applyBatch(portfolio, batchId, actions);
+        }
+    }
+
+    // Applies one batch atomically, marking it as rejected in the journal if the account refuses it
+    private List<String> applyBatch(Portfolio portfolio, String batchId, List<CorporateAction> actions) {
+        try {
+            return portfolio.applyCorporateActions(actions);
+        } catch (IllegalArgumentException e) {
+            List<String> messages = new ArrayList<>();
+            messages.add("Error: " + e.getMessage());
+            if (batchId != null) {
+                try {
+                    journal.reject(batchId);
+                } catch (IOException ex) {
+                    messages.add("Error: Could not mark the batch as rejected: " + ex.getMessage());
+                }
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file recording which batches of corporate actions were applied to which account.
+ * Each batch is one line holding a batch ID, an account ID and its actions in their journal form,
+ * synced to disk before the batch is applied. A batch the account rejects is marked by a later
+ * line, so replay can leave it out. Every line ends with a checksum of its content, so a line
+ * torn by a crash while it was written is detected and skipped instead of replayed in part.
+ * Reading the journal back yields the batches in the order they were recorded, ready to be
+ * replayed one by one.
+ */
+public class CorporateActionJournal implements Closeable {
+    private static final String SEPARATOR = "|";          // Separates the fields of a line
+    private static final String BATCH = "BATCH";          // Starts a line recording a batch
+    private static final String REJECTED = "REJECTED";    // Starts a line marking a batch as rejected
+    private static final int ACTION_FIELDS = 7;           // Fields in the journal form of one action
+
+    private final Path file;           // Journal file
+    private final OutputStream out;    // Appends to the journal file
+    private boolean needsNewline;      // True if the file ends in a torn line that must be closed first
+
+    /**
+     * Constructor for opening a journal, creating the file if it does not exist.
+     *
+     * @param file the journal file
+     * @throws IOException if the file cannot be opened for appending
+     */
+    public CorporateActionJournal(Path file) throws IOException {
+        this.file = file;
+        this.out = Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        this.needsNewline = !endsWithNewline(file);
+    }
+
+    /**
+     * Records a batch of actions about to be applied to an account. The batch reaches the disk
+     * before this method returns.
+     * @param accountId The ID of the account.
+     * @param actions The actions to apply, in order.
+     * @return The ID of the recorded batch.
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized String record(String accountId, List<CorporateAction> actions) throws IOException {
+        if (accountId.isEmpty() || accountId.contains(SEPARATOR) || accountId.contains("\n")
+                || accountId.contains("\r")) {
+            throw new IllegalArgumentException("Invalid account ID: " + accountId);
+        }
+        String batchId = UUID.randomUUID().toString();
+        StringBuilder line = new StringBuilder(BATCH).append(SEPARATOR).append(batchId)
+            .append(SEPARATOR).append(accountId).append(SEPARATOR).append(actions.size());
+        for (CorporateAction action : actions) {
+            line.append(SEPARATOR).append(action.toJournalString());
+        }
+        writeLine(line.toString());
+        return batchId;
+    }
+
+    /**
+     * Marks a recorded batch as rejected by its account, so it is not replayed.
+     * @param batchId The ID returned when the batch was recorded.
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void reject(String batchId) throws IOException {
+        writeLine(REJECTED + SEPARATOR + batchId);
+    }
+
+    /**
+     * Reads every recorded batch. Lines that cannot be read, such as a line torn by a crash,
+     * are skipped and described in the given list.
+     * @param skipped Receives a message for every skipped line.
+     * @return The batches in the order they were recorded.
+     * @throws IOException if the journal cannot be read.
+     */
+    public synchronized List<Batch> read(List<String> skipped) throws IOException {
+        Map<String, Batch> recorded = new LinkedHashMap<>();
+        Set<String> rejected = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int checksumStart = line.lastIndexOf(SEPARATOR);
+                String content = checksumStart < 0 ? "" : line.substring(0, checksumStart);
+                if (checksumStart < 0 || !line.substring(checksumStart + 1).equals(checksum(content))) {
+                    skipped.add("Skipped journal line " + lineNumber + ": incomplete or damaged.");
+                    continue;
+                }
+                String[] fields = content.split("\\|", -1);
+                try {
+                    if (BATCH.equals(fields[0]) && fields.length >= 4) {
+                        recorded.put(fields[1], new Batch(fields[1], fields[2], parseActions(fields), false));
+                    } else if (REJECTED.equals(fields[0]) && fields.length == 2) {
+                        rejected.add(fields[1]);
+                    } else {
+                        skipped.add("Skipped journal line " + lineNumber + ": unknown record.");
+                    }
+                } catch (IllegalArgumentException e) {
+                    skipped.add("Skipped journal line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+
+        List<Batch> batches = new ArrayList<>();
+        for (Batch batch : recorded.values()) {
+            batches.add(rejected.contains(batch.getId())
+                ? new Batch(batch.getId(), batch.getAccountId(), batch.getActions(), true) : batch);
+        }
+        return batches;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    // Appends one line with its checksum as a single write, which DSYNC forces to the disk
+    private void writeLine(String line) throws IOException {
+        String text = (needsNewline ? "\n" : "") + line + SEPARATOR + checksum(line) + "\n";
+        needsNewline = true;  // Until the write completes, assume it left a torn line behind
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        needsNewline = false;
+    }
+
+    // Computes the checksum written at the end of a line
+    private static String checksum(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    // Checks whether a file is empty or ends with a complete line
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    // Parses the actions following the header fields of a batch line
+    private static List<CorporateAction> parseActions(String[] fields) {
+        int count;
+        try {
+            count = Integer.parseInt(fields[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid action count in batch " + fields[1], e);
+        }
+        if (count < 0 || fields.length != 4 + count * ACTION_FIELDS) {
+            throw new IllegalArgumentException("Invalid action count in batch " + fields[1]);
+        }
+        List<CorporateAction> actions = new ArrayList<>(count);
+        for (int start = 4; start < fields.length; start += ACTION_FIELDS) {
+            actions.add(CorporateAction.parse(
+                String.join(SEPARATOR, Arrays.copyOfRange(fields, start, start + ACTION_FIELDS))));
+        }
+        return actions;
+    }
+
+    /**
+     * One batch of actions recorded for an account.
+     */
+    public static final class Batch {
+        private final String id;                       // Unique ID of the batch
+        private final String accountId;                // Account the batch was recorded for
+        private final List<CorporateAction> actions;   // Actions of the batch, in order
+        private final boolean rejected;                // True if the account rejected the batch
+
+        Batch(String id, String accountId, List<CorporateAction> actions, boolean rejected) {
+            this.id = id;
+            this.accountId = accountId;
+            this.actions = Collections.unmodifiableList(actions);
+            this.rejected = rejected;
+        }
+
+        /**
+         * Gets the ID of this batch.
+         * @return The batch ID.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the ID of the account this batch was recorded for.
+         * @return The account ID.
+         */
+        public String getAccountId() {
+            return accountId;
+        }
+
+        /**
+         * Gets the actions of this batch.
+         * @return An unmodifiable list of actions, in order.
+         */
+        public List<CorporateAction> getActions() {
+            return actions;
+        }
+
+        /**
+         * Checks whether the account rejected this batch.
+         * @return True if the batch was rejected and must not be replayed.
+         */
+        public boolean isRejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * This class represents an Exchange-Traded Fund (ETF) investment.
+ * It extends the Investment class and calculates its book value and gain accordingly.
+ */
+public class ETF extends Investment {
+    private static final double COMMISSION_RATE = 4.95; // ETF trading commission
+    private static final BatchValuation.GainKernel GAIN_KERNEL =
+        BatchValuation.fixedFeeKernel(COMMISSION_RATE); // Gain formula, also used by BatchValuation
+
+    /**
+     * Constructor for creating an ETF object.
+     * 
+     * @param symbol the symbol of the ETF
+     * @param name the name of the ETF
+     * @param quantity the quantity of the ETF
+     * @param price the price per unit of the ETF
+     */
+    public ETF(String symbol, String name, int quantity, double price) {
+        super(symbol, name, quantity, price);
+        this.bookValue = calculateBookValue(quantity, price);
+    }
+
+    /**
+     * Gets the type of investment (ETF).
+     * 
+     * @return the string representing the investment type
+     */
+    @Override
+    public String getType() {
+        return "ETF";
+    }
+
+    /**
+     * Calculates the book value of the ETF, including commission.
+     * 
+     * @param quantity the quantity of the ETF
+     * @param price the price per unit of the ETF
+     * @return the calculated book value
+     */
+    @Override
+    public double calculateBookValue(int quantity, double price) {
+        return (quantity * price) + COMMISSION_RATE;
+    }
+
+    /**
+     * Calculates the gain for this ETF investment.
+     * 
+     * @return the calculated gain
+     */
+    @Override
+    public double getGain() {
+        return GAIN_KERNEL.totalGain(quantity * price, bookValue, 1);
+    }
+
+    /**
+     * Gets the gain formula of ETFs, which getGain() also uses.
+     * A subclass may override getGain(), so it is valued one by one instead.
+     * 
+     * @return the gain kernel, or null for a subclass
+     */
+    @Override
+    BatchValuation.GainKernel getGainKernel() {
+        return getClass() == ETF.class ? GAIN_KERNEL : null;
+    }
+}
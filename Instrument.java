@@ -0,0 +1,32 @@
+/**
+ * This class represents a tradable instrument known to the autocomplete index:
+ * either a holding of the portfolio or an entry of the security master.
+ */
+public class Instrument {
+    private final String symbol;  // Symbol of the instrument
+    private final String name;    // Name of the instrument
+
+    /**
+     * Constructor for creating an instrument.
+     * 
+     * @param symbol the symbol of the instrument
+     * @param name the name of the instrument
+     */
+    public Instrument(String symbol, String name) {
+        this.symbol = symbol;
+        this.name = name;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return symbol + " - " + name;
+    }
+}
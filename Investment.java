@@ -2,7 +2,7 @@
  * This class represents a general investment.
  * It provides common functionality for different types of investments like Stock and MutualFund.
  */
-public abstract class Investment {
+public abstract class Investment implements Cloneable {
     protected String symbol;    // Symbol of the investment
     protected String name;      // Name of the investment
     protected int quantity;     // Quantity of the investment
@@ -49,6 +49,34 @@ public abstract class Investment {
      */
     public abstract double getGain();
 
+    /**
+     * Gets the formula that calculates the total gain of many holdings of this type from their
+     * summed values, for BatchValuation. A type returning null is valued by calling getGain().
+     * 
+     * @return the gain kernel of this type, or null if it has none
+     */
+    BatchValuation.GainKernel getGainKernel() {
+        return null;
+    }
+
+    /**
+     * Calculates the market value of the investment at its current price.
+     * 
+     * @return the quantity multiplied by the price per unit
+     */
+    public double getMarketValue() {
+        return quantity * price;
+    }
+
+    /**
+     * Calculates the gain as a percentage of the book value.
+     * 
+     * @return the gain in percent, or 0 if the book value is 0
+     */
+    public double getGainPercent() {
+        return bookValue == 0 ? 0 : getGain() / bookValue * 100;
+    }
+
     // Getter and setter methods for each attribute (symbol, name, etc.)
     public String getSymbol() {
         return symbol;
@@ -90,6 +118,19 @@ public abstract class Investment {
         this.bookValue = bookValue;
     }
 
+    /**
+     * Creates an independent copy of this investment with the same type and values.
+     * 
+     * @return the copy
+     */
+    public Investment copy() {
+        try {
+            return (Investment) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     @Override
     public String toString() {
         return symbol + ": " + name + " (" + getType() + ")";
@@ -0,0 +1,191 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Describes a search over the holdings of a portfolio: which holdings match, in what order,
+ * and which slice of the matches to return.
+ * Results are produced lazily from a PortfolioSnapshot, so the first page of a large result
+ * is available without visiting the rest, and nothing is formatted until it is displayed.
+ */
+public class InvestmentQuery {
+
+    /**
+     * The order in which matching holdings are returned.
+     */
+    public enum SortOrder {
+        INSERTION("Purchase order", null),
+        SYMBOL("Symbol", Comparator.comparing(Investment::getSymbol, String.CASE_INSENSITIVE_ORDER)),
+        NAME("Name", Comparator.comparing(Investment::getName, String.CASE_INSENSITIVE_ORDER)),
+        PRICE_ASCENDING("Price (low to high)", Comparator.comparingDouble(Investment::getPrice)),
+        PRICE_DESCENDING("Price (high to low)", Comparator.comparingDouble(Investment::getPrice).reversed());
+
+        // Ties are broken by the unique symbol so that pages never overlap
+        private static final Comparator<Investment> BY_SYMBOL =
+            Comparator.comparing(Investment::getSymbol, String.CASE_INSENSITIVE_ORDER);
+
+        private final String label;
+        private final Comparator<Investment> comparator;  // Null for insertion order
+
+        SortOrder(String label, Comparator<Investment> comparator) {
+            this.label = label;
+            this.comparator = comparator;
+        }
+
+        // The full ordering, including the tie-break
+        private Comparator<Investment> ordering() {
+            return this == SYMBOL ? comparator : comparator.thenComparing(BY_SYMBOL);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private String symbol = "";                    // Symbol to match, empty to ignore
+    private String keywords = "";                  // Lower-case keywords to find in the name, empty to ignore
+    private Double lowPrice;                       // Lowest matching price, null to ignore
+    private Double highPrice;                      // Highest matching price, null to ignore
+    private SortOrder sortOrder = SortOrder.INSERTION;
+    private int offset;                            // Number of matches to skip
+    private int limit = Integer.MAX_VALUE;         // Maximum number of matches to return
+
+    /**
+     * Restricts the query to one symbol.
+     * @param symbol The symbol to match, ignoring case (empty to ignore this criterion).
+     * @return This query.
+     */
+    public InvestmentQuery symbol(String symbol) {
+        this.symbol = symbol == null ? "" : symbol.trim();
+        return this;
+    }
+
+    /**
+     * Restricts the query to holdings whose name contains the keywords.
+     * @param keywords The keywords to find in the name, ignoring case (empty to ignore this criterion).
+     * @return This query.
+     */
+    public InvestmentQuery keywords(String keywords) {
+        this.keywords = keywords == null ? "" : keywords.trim().toLowerCase();
+        return this;
+    }
+
+    /**
+     * Restricts the query to a price range.
+     * @param lowPrice The lowest matching price (null for no lower bound).
+     * @param highPrice The highest matching price (null for no upper bound).
+     * @return This query.
+     */
+    public InvestmentQuery priceRange(Double lowPrice, Double highPrice) {
+        this.lowPrice = lowPrice;
+        this.highPrice = highPrice;
+        return this;
+    }
+
+    /**
+     * Sets the order of the results.
+     * @param sortOrder The order of the results.
+     * @return This query.
+     */
+    public InvestmentQuery sortBy(SortOrder sortOrder) {
+        this.sortOrder = sortOrder;
+        return this;
+    }
+
+    /**
+     * Sets how many matches to skip before the first result.
+     * @param offset The number of matches to skip.
+     * @return This query.
+     */
+    public InvestmentQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative.");
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of results.
+     * @param limit The maximum number of results.
+     * @return This query.
+     */
+    public InvestmentQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative.");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Checks whether a holding matches the criteria of this query.
+     * @param investment The holding to check.
+     * @return True if the holding matches.
+     */
+    public boolean matches(Investment investment) {
+        return (symbol.isEmpty() || investment.getSymbol().equalsIgnoreCase(symbol)) &&
+            (keywords.isEmpty() || investment.getName().toLowerCase().contains(keywords)) &&
+            (lowPrice == null || investment.getPrice() >= lowPrice) &&
+            (highPrice == null || investment.getPrice() <= highPrice);
+    }
+
+    /**
+     * Runs the query against a snapshot.
+     * In insertion order the stream is fully lazy. Other orders must see every match, but keep
+     * only the best offset + limit of them when a limit is set.
+     * @param snapshot The snapshot to search.
+     * @return A stream of the matching holdings.
+     */
+    public Stream<Investment> stream(PortfolioSnapshot snapshot) {
+        Stream<Investment> matches = StreamSupport.stream(Spliterators.spliterator(
+            snapshot.getInvestments().iterator(), snapshot.size(),
+            Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false)
+            .filter(this::matches);
+
+        if (sortOrder.comparator == null) {
+            return matches.skip(offset).limit(limit);
+        }
+        if ((long) offset + limit > Integer.MAX_VALUE) {
+            return matches.sorted(sortOrder.ordering()).skip(offset).limit(limit);
+        }
+        return best(matches, sortOrder.ordering(), offset + limit).stream().skip(offset);
+    }
+
+    /**
+     * Opens a cursor that returns the results of this query page by page.
+     * All pages come from the same snapshot, so they stay consistent while the portfolio changes.
+     * @param snapshot The snapshot to search.
+     * @param pageSize The number of results per page.
+     * @return A cursor positioned before the first result.
+     */
+    public SearchCursor cursor(PortfolioSnapshot snapshot, int pageSize) {
+        return new SearchCursor(stream(snapshot).iterator(), offset, pageSize);
+    }
+
+    // Keeps the first count matches in sorted order using a bounded heap
+    private static List<Investment> best(Stream<Investment> matches, Comparator<Investment> comparator, int count) {
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Investment> heap = new PriorityQueue<>(Math.min(count, 1024), comparator.reversed());
+        matches.forEach(investment -> {
+            if (heap.size() < count) {
+                heap.add(investment);
+            } else if (comparator.compare(investment, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(investment);
+            }
+        });
+        List<Investment> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return result;
+    }
+}
@@ -4,6 +4,8 @@
  */
 public class MutualFund extends Investment {
     private static final double LOAD_FEE = 25.00; // Mutual Fund load fee
+    private static final BatchValuation.GainKernel GAIN_KERNEL =
+        BatchValuation.fixedFeeKernel(LOAD_FEE); // Gain formula, also used by BatchValuation
 
     /**
      * Constructor for creating a MutualFund object.
@@ -47,6 +49,17 @@ public class MutualFund extends Investment {
      */
     @Override
     public double getGain() {
-        return (quantity * price) - bookValue - LOAD_FEE;
+        return GAIN_KERNEL.totalGain(quantity * price, bookValue, 1);
+    }
+
+    /**
+     * Gets the gain formula of mutual funds, which getGain() also uses.
+     * A subclass may override getGain(), so it is valued one by one instead.
+     * 
+     * @return the gain kernel, or null for a subclass
+     */
+    @Override
+    BatchValuation.GainKernel getGainKernel() {
+        return getClass() == MutualFund.class ? GAIN_KERNEL : null;
     }
 }
@@ -0,0 +1,231 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, persistent collection of holdings ordered by a sequence key.
+ * It is a balanced (AVL) tree whose nodes are never modified: an update copies only the
+ * path from the root to the changed node and shares every other subtree with the
+ * previous version, so old versions stay valid and cost O(log n) extra memory per change.
+ * Each node also stores the size of its subtree, which allows positional access.
+ */
+public final class PersistentHoldings implements Iterable<Investment> {
+
+    /**
+     * The empty collection.
+     */
+    public static final PersistentHoldings EMPTY = new PersistentHoldings(null);
+
+    private final Node root;  // Root of the tree, null when empty
+
+    private PersistentHoldings(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the number of holdings.
+     * @return The number of holdings.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Checks whether there are no holdings.
+     * @return True if the collection is empty.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Gets the holding stored under a sequence key.
+     * @param key The sequence key.
+     * @return The holding, or null if there is none.
+     */
+    public Investment get(long key) {
+        Node node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the holding at a position in key order.
+     * @param index The position, starting at 0.
+     * @return The holding at that position.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public Investment getAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Returns a new version with a holding stored under a key, replacing any previous one.
+     * @param key The sequence key.
+     * @param value The holding to store.
+     * @return The new version; this version is unchanged.
+     */
+    public PersistentHoldings put(long key, Investment value) {
+        return new PersistentHoldings(put(root, key, value));
+    }
+
+    /**
+     * Returns a new version without the holding stored under a key.
+     * @param key The sequence key.
+     * @return The new version, or this version if the key is not present.
+     */
+    public PersistentHoldings remove(long key) {
+        Node newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentHoldings(newRoot);
+    }
+
+    /**
+     * Iterates the holdings in key order.
+     * @return An iterator over the holdings.
+     */
+    @Override
+    public Iterator<Investment> iterator() {
+        return new Iterator<Investment>() {
+            private final Deque<Node> path = new ArrayDeque<>();  // Nodes still to visit, next on top
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Investment next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = path.pop();
+                pushLeft(node.right);
+                return node.value;
+            }
+
+            private void pushLeft(Node node) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+            }
+        };
+    }
+
+    private static Node put(Node node, long key, Investment value) {
+        if (node == null) {
+            return new Node(key, value, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        } else if (key > node.key) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node(key, value, node.left, node.right);
+    }
+
+    private static Node remove(Node node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key < node.key) {
+            Node left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        } else if (key > node.key) {
+            Node right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Replace the removed node with its in-order successor
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, remove(node.right, successor.key));
+    }
+
+    // Builds a node from its parts, rotating if the subtrees differ in height by more than one
+    private static Node balance(long key, Investment value, Node left, Node right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.key, left.value, left.left, new Node(key, value, left.right, right));
+            }
+            Node pivot = left.right;
+            return new Node(pivot.key, pivot.value,
+                new Node(left.key, left.value, left.left, pivot.left),
+                new Node(key, value, pivot.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.key, right.value, new Node(key, value, left, right.left), right.right);
+            }
+            Node pivot = right.left;
+            return new Node(pivot.key, pivot.value,
+                new Node(key, value, left, pivot.left),
+                new Node(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node(key, value, left, right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * An immutable tree node.
+     */
+    private static final class Node {
+        private final long key;            // Sequence key
+        private final Investment value;    // Holding stored under the key
+        private final Node left;           // Subtree with smaller keys
+        private final Node right;          // Subtree with larger keys
+        private final int height;          // Height of this subtree
+        private final int size;            // Number of nodes in this subtree
+
+        Node(long key, Investment value, Node left, Node right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * An immutable, persistent map from upper-case symbols to the sequence keys of their holdings.
+ * Like PersistentHoldings it is a balanced (AVL) tree whose nodes are never modified: an
+ * update copies only the path to the changed node, so every PortfolioSnapshot can carry its
+ * own version of the index at O(log n) extra memory per change.
+ */
+public final class PersistentSymbolIndex {
+
+    /**
+     * The empty index.
+     */
+    public static final PersistentSymbolIndex EMPTY = new PersistentSymbolIndex(null);
+
+    private final Node root;  // Root of the tree, null when empty
+
+    private PersistentSymbolIndex(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the sequence key stored for a symbol.
+     * @param symbol The upper-case symbol.
+     * @return The sequence key, or null if the symbol is not present.
+     */
+    public Long get(String symbol) {
+        Node node = root;
+        while (node != null) {
+            int comparison = symbol.compareTo(node.symbol);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                node = node.right;
+            } else {
+                return node.sequence;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a new version with a sequence key stored for a symbol, replacing any previous one.
+     * @param symbol The upper-case symbol.
+     * @param sequence The sequence key to store.
+     * @return The new version; this version is unchanged.
+     */
+    public PersistentSymbolIndex put(String symbol, long sequence) {
+        return new PersistentSymbolIndex(put(root, symbol, sequence));
+    }
+
+    /**
+     * Returns a new version without a symbol.
+     * @param symbol The upper-case symbol.
+     * @return The new version, or this version if the symbol is not present.
+     */
+    public PersistentSymbolIndex remove(String symbol) {
+        Node newRoot = remove(root, symbol);
+        return newRoot == root ? this : new PersistentSymbolIndex(newRoot);
+    }
+
+    private static Node put(Node node, String symbol, long sequence) {
+        if (node == null) {
+            return new Node(symbol, sequence, null, null);
+        }
+        int comparison = symbol.compareTo(node.symbol);
+        if (comparison < 0) {
+            return balance(node.symbol, node.sequence, put(node.left, symbol, sequence), node.right);
+        } else if (comparison > 0) {
+            return balance(node.symbol, node.sequence, node.left, put(node.right, symbol, sequence));
+        }
+        return new Node(symbol, sequence, node.left, node.right);
+    }
+
+    private static Node remove(Node node, String symbol) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = symbol.compareTo(node.symbol);
+        if (comparison < 0) {
+            Node left = remove(node.left, symbol);
+            return left == node.left ? node : balance(node.symbol, node.sequence, left, node.right);
+        } else if (comparison > 0) {
+            Node right = remove(node.right, symbol);
+            return right == node.right ? node : balance(node.symbol, node.sequence, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Replace the removed node with its in-order successor
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.symbol, successor.sequence, node.left, remove(node.right, successor.symbol));
+    }
+
+    // Builds a node from its parts, rotating if the subtrees differ in height by more than one
+    private static Node balance(String symbol, long sequence, Node left, Node right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.symbol, left.sequence, left.left, new Node(symbol, sequence, left.right, right));
+            }
+            Node pivot = left.right;
+            return new Node(pivot.symbol, pivot.sequence,
+                new Node(left.symbol, left.sequence, left.left, pivot.left),
+                new Node(symbol, sequence, pivot.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.symbol, right.sequence, new Node(symbol, sequence, left, right.left), right.right);
+            }
+            Node pivot = right.left;
+            return new Node(pivot.symbol, pivot.sequence,
+                new Node(symbol, sequence, left, pivot.left),
+                new Node(right.symbol, right.sequence, pivot.right, right.right));
+        }
+        return new Node(symbol, sequence, left, right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * An immutable tree node.
+     */
+    private static final class Node {
+        private final String symbol;   // Upper-case symbol
+        private final long sequence;   // Sequence key of the symbol's holding
+        private final Node left;       // Subtree with smaller symbols
+        private final Node right;      // Subtree with larger symbols
+        private final int height;      // Height of this subtree
+
+        Node(String symbol, long sequence, Node left, Node right) {
+            this.symbol = symbol;
+            this.sequence = sequence;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
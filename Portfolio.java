@@ -1,66 +1,118 @@
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 /**
  * Represents an investment portfolio, allowing the addition, removal, and updating of investments.
  * Supports buying, selling, searching, and calculating the total gain of the portfolio.
+ * Changes are copy-on-write: every change publishes a new PortfolioSnapshot, so readers never
+ * see a half-applied change and never block writers.
  */
 public class Portfolio {
-    private List<Investment> investments;  // List of all investments in the portfolio
+    private volatile PortfolioSnapshot current;     // Latest published version of the holdings
+    private PersistentSymbolIndex sequenceBySymbol; // Sequence key of each held symbol, guarded by this
+    private long nextSequence;                      // Sequence key of the next new holding, guarded by this
+    private Set<String> appliedActionIds;           // IDs of corporate actions already applied, guarded by this
+    private List<PortfolioListener> listeners;      // Listeners notified when a holding changes
 
     /**
      * Constructor to initialize an empty portfolio.
      */
     public Portfolio() {
-        this.investments = new ArrayList<>();
+        this.current = PortfolioSnapshot.EMPTY;
+        this.sequenceBySymbol = PersistentSymbolIndex.EMPTY;
+        this.appliedActionIds = new HashSet<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Adds a listener that is notified whenever a holding is bought, sold, or repriced.
+     * @param listener The listener to add.
+     */
+    public void addPortfolioListener(PortfolioListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added portfolio listener.
+     * @param listener The listener to remove.
+     */
+    public void removePortfolioListener(PortfolioListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets a consistent, read-only version of the portfolio as of now.
+     * Taking a snapshot is constant time and does not copy any holdings.
+     * @return The current snapshot.
+     */
+    public PortfolioSnapshot snapshot() {
+        return current;
     }
 
     /**
      * Gets the list of all investments in the portfolio.
+     * The list is an unmodifiable view of the current snapshot and does not change when the
+     * portfolio does; call this method again to see later changes.
      * @return A list of investments.
      */
     public List<Investment> getInvestments() {
-        return investments;
+        return current.getInvestments();
     }
 
     /**
-     * Buys an investment (either Stock or MutualFund) and adds it to the portfolio.
+     * Buys an investment (Stock, MutualFund, ETF or Bond) and adds it to the portfolio.
      * If an investment with the same symbol already exists, it updates the quantity and book value.
-     * @param type The type of investment (either "stock" or "mutualfund").
+     * @param type The type of investment ("stock", "mutualfund", "etf" or "bond").
      * @param symbol The symbol of the investment (e.g., stock ticker).
      * @param name The name of the investment.
      * @param quantity The quantity of the investment being bought.
      * @param price The price of the investment.
      * @return A message indicating the result of the operation.
      */
-    public String buyInvestment(String type, String symbol, String name, int quantity, double price) {
+    public synchronized String buyInvestment(String type, String symbol, String name, int quantity, double price) {
         // Validate that quantity and price are positive values
         if (quantity <= 0 || price <= 0) {
             return "Error: Quantity and price must be positive values.";
         }
-    
+
         // Check if the investment already exists in the portfolio
-        for (Investment investment : investments) {
-            if (investment.getSymbol().equalsIgnoreCase(symbol)) {
-                // If investment exists, update its quantity and book value
-                double additionalBookValue = investment.calculateBookValue(quantity, price);
-                investment.setQuantity(investment.getQuantity() + quantity);
-                investment.bookValue += additionalBookValue;
-                return "Updated existing investment successfully!";
-            }
+        Long sequence = sequenceBySymbol.get(symbol.toUpperCase());
+        if (sequence != null) {
+            // If investment exists, update the quantity and book value of a copy
+            Investment investment = current.getHoldings().get(sequence).copy();
+            double additionalBookValue = investment.calculateBookValue(quantity, price);
+            investment.setQuantity(investment.getQuantity() + quantity);
+            investment.bookValue += additionalBookValue;
+            publish(current.getHoldings().put(sequence, investment));
+            fireInvestmentUpdated(investment);
+            return "Updated existing investment successfully!";
         }
-    
+
         // If investment does not exist, create a new investment object
         Investment newInvestment = null;
         if (type.equalsIgnoreCase("stock")) {
             newInvestment = new Stock(symbol, name, quantity, price);
         } else if (type.equalsIgnoreCase("mutualfund")) {
             newInvestment = new MutualFund(symbol, name, quantity, price);
+        } else if (type.equalsIgnoreCase("etf")) {
+            newInvestment = new ETF(symbol, name, quantity, price);
+        } else if (type.equalsIgnoreCase("bond")) {
+            newInvestment = new Bond(symbol, name, quantity, price);
         }
-    
+
         // If valid investment type, add it to the portfolio; otherwise, return error message
         if (newInvestment != null) {
-            investments.add(newInvestment);
+            sequence = nextSequence++;
+            sequenceBySymbol = sequenceBySymbol.put(symbol.toUpperCase(), sequence);
+            publish(current.getHoldings().put(sequence, newInvestment));
+            fireInvestmentUpdated(newInvestment);
             return "New investment added successfully!";
         } else {
             return "Invalid investment type!";
@@ -75,34 +127,40 @@ public class Portfolio {
      * @param price The price at which to sell the investment.
      * @return A message indicating the result of the operation.
      */
-    public String sellInvestment(String symbol, int quantity, double price) {
+    public synchronized String sellInvestment(String symbol, int quantity, double price) {
         // Validate that quantity and price are positive values
         if (quantity <= 0 || price <= 0) {
             return "Error: Quantity and price must be positive values.";
         }
-    
+
         // Search for the investment to sell by its symbol
-        for (Investment investment : investments) {
-            if (investment.getSymbol().equalsIgnoreCase(symbol)) {
-                // Check if there is enough quantity to sell
-                if (investment.getQuantity() < quantity) {
-                    return "Error: Not enough quantity to sell.";
-                }
-    
-                // Adjust the book value and quantity after the sale
-                double proportion = (double) quantity / investment.getQuantity();
-                investment.bookValue -= investment.bookValue * proportion;
-                investment.setQuantity(investment.getQuantity() - quantity);
-    
-                // If all quantity is sold, remove the investment from the portfolio
-                if (investment.getQuantity() == 0) {
-                    investments.remove(investment);
-                }
-    
-                return "Sold " + quantity + " of " + symbol + " successfully.";
-            }
+        Long sequence = sequenceBySymbol.get(symbol.toUpperCase());
+        if (sequence == null) {
+            return "Error: Investment with symbol " + symbol + " not found.";
+        }
+        Investment investment = current.getHoldings().get(sequence).copy();
+
+        // Check if there is enough quantity to sell
+        if (investment.getQuantity() < quantity) {
+            return "Error: Not enough quantity to sell.";
+        }
+
+        // Adjust the book value and quantity after the sale
+        double proportion = (double) quantity / investment.getQuantity();
+        investment.bookValue -= investment.bookValue * proportion;
+        investment.setQuantity(investment.getQuantity() - quantity);
+
+        // If all quantity is sold, remove the investment from the portfolio
+        if (investment.getQuantity() == 0) {
+            sequenceBySymbol = sequenceBySymbol.remove(symbol.toUpperCase());
+            publish(current.getHoldings().remove(sequence));
+            fireInvestmentRemoved(investment);
+        } else {
+            publish(current.getHoldings().put(sequence, investment));
+            fireInvestmentUpdated(investment);
         }
-        return "Error: Investment with symbol " + symbol + " not found.";
+
+        return "Sold " + quantity + " of " + symbol + " successfully.";
     }
 
     /**
@@ -111,20 +169,22 @@ public class Portfolio {
      * @param newPrice The new price of the investment.
      * @return A message indicating the result of the operation.
      */
-    public String updatePrice(String symbol, double newPrice) {
+    public synchronized String updatePrice(String symbol, double newPrice) {
         // Validate that the new price is a positive value
         if (newPrice <= 0) {
             return "Error: Price must be a positive value.";
         }
-    
-        // Search for the investment by symbol and update its price
-        for (Investment investment : investments) {
-            if (investment.getSymbol().equalsIgnoreCase(symbol)) {
-                investment.setPrice(newPrice);
-                return "Updated price of " + symbol + " successfully.";
-            }
+
+        // Search for the investment by symbol and update the price of a copy
+        Long sequence = sequenceBySymbol.get(symbol.toUpperCase());
+        if (sequence == null) {
+            return "Error: Investment with symbol " + symbol + " not found.";
         }
-        return "Error: Investment with symbol " + symbol + " not found.";
+        Investment investment = current.getHoldings().get(sequence).copy();
+        investment.setPrice(newPrice);
+        publish(current.getHoldings().put(sequence, investment));
+        fireInvestmentUpdated(investment);
+        return "Updated price of " + symbol + " successfully.";
     }
 
     /**
@@ -135,23 +195,183 @@ public class Portfolio {
      */
     public String searchInvestments(String symbol, String keywords) {
         StringBuilder result = new StringBuilder();
-        // Loop through all investments and check if they match the search criteria
-        for (Investment investment : investments) {
-            if ((symbol.isEmpty() || investment.getSymbol().equalsIgnoreCase(symbol)) &&
-                (keywords.isEmpty() || investment.getName().toLowerCase().contains(keywords.toLowerCase()))) {
-                result.append(investment).append("\n");  // Append the matching investment to the result
-            }
-        }
+        // Append every investment of one snapshot that matches the search criteria
+        search(new InvestmentQuery().symbol(symbol).keywords(keywords))
+            .forEach(investment -> result.append(investment).append("\n"));
         // Return the result or a message if no matches are found
         return result.length() > 0 ? result.toString() : "No investments found matching the criteria.";
     }
 
+    /**
+     * Runs a query against the current snapshot of the portfolio.
+     * @param query The query to run.
+     * @return A lazy stream of the matching investments.
+     */
+    public Stream<Investment> search(InvestmentQuery query) {
+        return query.stream(snapshot());
+    }
+
     /**
      * Calculates the total gain of the portfolio, which is the sum of the gains of all investments.
      * @return The total gain of the portfolio.
      */
     public double calculateTotalGain() {
-        // Use stream to sum the gains of all investments
-        return investments.stream().mapToDouble(Investment::getGain).sum();
+        // Value all investments of one snapshot in per-type batches
+        return BatchValuation.totalGain(snapshot().getInvestments());
+    }
+
+    /**
+     * Applies a batch of corporate actions to the portfolio as one change.
+     * Either every action of the batch takes effect in a single new snapshot, or, if any action
+     * cannot be applied, none does. Actions whose ID was applied before are skipped, so applying
+     * the same batch twice has no further effect. Book value is carried over unchanged, except
+     * for fractional units paid out as cash, which reduce it in proportion like a sale.
+     * @param actions The actions to apply, in order.
+     * @return A message for each action describing its effect.
+     * @throws IllegalArgumentException if an action cannot be applied; the portfolio is unchanged.
+     */
+    public synchronized List<String> applyCorporateActions(List<CorporateAction> actions) {
+        List<String> messages = new ArrayList<>();
+        PersistentHoldings holdings = current.getHoldings();
+        Map<String, Long> symbolChanges = new HashMap<>();        // Changed symbol keys, null if removed
+        Set<String> batchIds = new HashSet<>();                   // IDs applied by this batch
+        Map<String, Investment> updated = new LinkedHashMap<>();  // Final state of each changed holding
+        Map<String, Investment> removed = new LinkedHashMap<>();  // Holdings removed by the batch
+
+        for (CorporateAction action : actions) {
+            if (appliedActionIds.contains(action.getId()) || !batchIds.add(action.getId())) {
+                messages.add("Skipped " + action.getId() + ": already applied.");
+                continue;
+            }
+            Long sequence = sequenceOf(action.getSymbol(), symbolChanges);
+            if (sequence == null) {
+                messages.add("No holding of " + action.getSymbol() + " for " + action.getId() + ".");
+                continue;
+            }
+            Investment investment = holdings.get(sequence).copy();
+            int oldQuantity = investment.getQuantity();
+
+            if (action.getType() == CorporateAction.Type.CASH_DIVIDEND) {
+                messages.add("Paid " + String.format("%.2f", oldQuantity * action.getAmount())
+                    + " dividend on " + oldQuantity + " of " + action.getSymbol() + ".");
+                continue;
+            }
+
+            double cashInLieu = convertUnits(investment, action.getRatio());
+            String message = "Applied " + action + ": " + oldQuantity + " -> " + investment.getQuantity() + " units";
+
+            if (action.getType() == CorporateAction.Type.MERGER) {
+                Long targetSequence = sequenceOf(action.getNewSymbol(), symbolChanges);
+                symbolChanges.put(action.getSymbol(), null);
+                holdings = holdings.remove(sequence);
+                // Report the old symbol as removed with its own copy, since the holding may be renamed below
+                removed.put(action.getSymbol(), investment.copy());
+                updated.remove(action.getSymbol());
+                if (targetSequence != null) {
+                    // Combine with the existing holding of the surviving symbol, keeping its price
+                    Investment target = holdings.get(targetSequence).copy();
+                    if (target.getClass() != investment.getClass()) {
+                        throw new IllegalArgumentException("Cannot merge " + investment.getType() + " "
+                            + action.getSymbol() + " into " + target.getType() + " " + action.getNewSymbol() + ".");
+                    }
+                    target.setQuantity(target.getQuantity() + investment.getQuantity());
+                    target.bookValue += investment.getBookValue();
+                    investment = target;
+                    sequence = targetSequence;
+                } else if (investment.getQuantity() > 0) {
+                    investment = investment.copy();
+                    investment.setSymbol(action.getNewSymbol());
+                    investment.setName(action.getNewName());
+                    symbolChanges.put(action.getNewSymbol(), sequence);
+                }
+                message += " of " + action.getNewSymbol();
+            }
+
+            if (investment.getQuantity() > 0) {
+                holdings = holdings.put(sequence, investment);
+                removed.remove(investment.getSymbol().toUpperCase());
+                updated.put(investment.getSymbol().toUpperCase(), investment);
+            } else if (action.getType() != CorporateAction.Type.MERGER) {
+                // Every unit was paid out in cash; a merged holding is already removed above
+                symbolChanges.put(investment.getSymbol().toUpperCase(), null);
+                holdings = holdings.remove(sequence);
+                updated.remove(investment.getSymbol().toUpperCase());
+                removed.put(investment.getSymbol().toUpperCase(), investment);
+            }
+            if (cashInLieu > 0) {
+                message += ", " + String.format("%.2f", cashInLieu) + " paid in lieu of fractional units";
+            }
+            messages.add(message + ".");
+        }
+
+        // Every action succeeded: publish all of them at once
+        for (Map.Entry<String, Long> change : symbolChanges.entrySet()) {
+            if (change.getValue() == null) {
+                sequenceBySymbol = sequenceBySymbol.remove(change.getKey());
+            } else {
+                sequenceBySymbol = sequenceBySymbol.put(change.getKey(), change.getValue());
+            }
+        }
+        appliedActionIds.addAll(batchIds);
+        if (holdings != current.getHoldings() || sequenceBySymbol != current.getSymbols()) {
+            publish(holdings);
+        }
+        for (Investment investment : removed.values()) {
+            fireInvestmentRemoved(investment);
+        }
+        for (Investment investment : updated.values()) {
+            fireInvestmentUpdated(investment);
+        }
+        return messages;
+    }
+
+    /**
+     * Checks whether a corporate action has already been applied to this portfolio.
+     * @param actionId The ID of the action.
+     * @return True if the action was applied before.
+     */
+    public synchronized boolean hasAppliedCorporateAction(String actionId) {
+        return appliedActionIds.contains(actionId);
+    }
+
+    // Finds the sequence key of a symbol, taking changes not yet published into account
+    private Long sequenceOf(String symbol, Map<String, Long> symbolChanges) {
+        String key = symbol.toUpperCase();
+        return symbolChanges.containsKey(key) ? symbolChanges.get(key) : sequenceBySymbol.get(key);
+    }
+
+    // Converts a holding to ratio new units per old unit and returns the cash paid for the fraction left over
+    private static double convertUnits(Investment investment, double ratio) {
+        double exactQuantity = investment.getQuantity() * ratio;
+        if (exactQuantity >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Quantity of " + investment.getSymbol() + " would be too large.");
+        }
+        int wholeQuantity = (int) Math.floor(exactQuantity + 1e-9);
+        double newPrice = investment.getPrice() / ratio;
+
+        // The total book value moves to the new units; only the fraction paid out in cash is removed
+        investment.bookValue *= Math.min(1.0, wholeQuantity / exactQuantity);
+        investment.setQuantity(wholeQuantity);
+        investment.setPrice(newPrice);
+        return Math.max(0.0, exactQuantity - wholeQuantity) * newPrice;
+    }
+
+    // Makes a new version of the holdings and the symbol index visible to readers; callers hold the lock
+    private void publish(PersistentHoldings holdings) {
+        current = new PortfolioSnapshot(current.getVersion() + 1, holdings, sequenceBySymbol);
+    }
+
+    // Notifies listeners that a holding was added or changed
+    private void fireInvestmentUpdated(Investment investment) {
+        for (PortfolioListener listener : listeners) {
+            listener.investmentUpdated(investment);
+        }
+    }
+
+    // Notifies listeners that a holding was removed
+    private void fireInvestmentRemoved(Investment investment) {
+        for (PortfolioListener listener : listeners) {
+            listener.investmentRemoved(investment);
+        }
     }
 }
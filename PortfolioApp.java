@@ -1,8 +1,20 @@
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
 import javax.swing.*;
 
 public class PortfolioApp {
+    private static final int SEARCH_PAGE_SIZE = 100;  // Search results shown per page
+    private static final int MAX_LOGGED_ALERTS = 20;  // Fired alerts logged one by one per change
+
     private Portfolio portfolio;
+    private AlertEngine alertEngine;
+    private PortfolioRankings rankings;
+    private AutocompleteIndex autocompleteIndex;
+    private JTextArea alertLogArea;
+    private JOptionPane alertPane;  // Content of the alert notification
+    private JDialog alertDialog;    // Single notification window reused for every alert
     private JFrame frame;
     private JPanel cardPanel;
     private int[] currentIndex;
@@ -10,6 +22,15 @@ public class PortfolioApp {
     // Constructor to set up the application
     public PortfolioApp() {
         portfolio = new Portfolio();
+        alertEngine = new AlertEngine();
+        portfolio.addPortfolioListener(alertEngine);
+        rankings = new PortfolioRankings();
+        portfolio.addPortfolioListener(rankings);
+        autocompleteIndex = new AutocompleteIndex();
+        portfolio.addPortfolioListener(autocompleteIndex);
+        loadSecurityMaster();
+        startQueryServer();
+        alertEngine.addAlertListener((rules, value) -> SwingUtilities.invokeLater(() -> showAlerts(rules, value)));
 
         frame = new JFrame("ePortfolio");
         frame.setSize(800, 600);
@@ -25,6 +46,8 @@ public class PortfolioApp {
         cardPanel.add(createUpdatePanel(), "UPDATE");
         cardPanel.add(createSearchPanel(), "SEARCH");
         cardPanel.add(createGetGainPanel(), "GETGAIN");
+        cardPanel.add(createMoversPanel(), "MOVERS");
+        cardPanel.add(createAlertsPanel(), "ALERTS");
 
         // Menu Bar
         JMenuBar menuBar = new JMenuBar();
@@ -39,6 +62,10 @@ public class PortfolioApp {
         searchItem.addActionListener(e -> switchPanel("SEARCH"));
         JMenuItem getGainItem = new JMenuItem("Get Gain");
         getGainItem.addActionListener(e -> switchPanel("GETGAIN"));
+        JMenuItem moversItem = new JMenuItem("Top Movers");
+        moversItem.addActionListener(e -> switchPanel("MOVERS"));
+        JMenuItem alertsItem = new JMenuItem("Alerts");
+        alertsItem.addActionListener(e -> switchPanel("ALERTS"));
         JMenuItem quitItem = new JMenuItem("Quit");
         quitItem.addActionListener(e -> System.exit(0));
 
@@ -47,6 +74,8 @@ public class PortfolioApp {
         menu.add(updateItem);
         menu.add(searchItem);
         menu.add(getGainItem);
+        menu.add(moversItem);
+        menu.add(alertsItem);
         menu.add(quitItem);
         menuBar.add(menu);
         frame.setJMenuBar(menuBar);
@@ -54,6 +83,37 @@ public class PortfolioApp {
         frame.setVisible(true);
     }
 
+    // Loads the security master named by the eportfolio.securityMaster property in the background
+    private void loadSecurityMaster() {
+        String file = System.getProperty("eportfolio.securityMaster");
+        if (file == null) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                autocompleteIndex.loadSecurityMaster(Paths.get(file));
+            } catch (IOException ex) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(frame,
+                    "Error: Could not load security master " + file + ": " + ex.getMessage()));
+            }
+        }, "security-master-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Starts the read-only HTTP server if the eportfolio.http.port property is set
+    private void startQueryServer() {
+        String port = System.getProperty("eportfolio.http.port");
+        if (port == null) {
+            return;
+        }
+        try {
+            new PortfolioServer(portfolio, Integer.parseInt(port)).start();
+        } catch (IOException | NumberFormatException ex) {
+            JOptionPane.showMessageDialog(frame, "Error: Could not start query server on port " + port + ": " + ex.getMessage());
+        }
+    }
+
     // Helper method to switch panels
     private void switchPanel(String panelName) {
         CardLayout layout = (CardLayout) cardPanel.getLayout();
@@ -79,7 +139,8 @@ private JPanel createBuyPanel() {
     JTextField nameField = new JTextField(20);
     JTextField quantityField = new JTextField(20);
     JTextField priceField = new JTextField(20);
-    JComboBox<String> typeComboBox = new JComboBox<>(new String[]{"Stock", "MutualFund"});
+    JComboBox<String> typeComboBox = new JComboBox<>(new String[]{"Stock", "MutualFund", "ETF", "Bond"});
+    SymbolAutocomplete.install(symbolField, autocompleteIndex, instrument -> nameField.setText(instrument.getName()));
 
     // Define the buttons
     JButton buyButton = new JButton("Buy");
@@ -153,6 +214,7 @@ private JPanel createSellPanel() {
     JTextField symbolField = new JTextField(20);
     JTextField quantityField = new JTextField(20);
     JTextField priceField = new JTextField(20);  // Added price field
+    SymbolAutocomplete.install(symbolField, autocompleteIndex, null);
     JTextArea messageArea = new JTextArea(10, 40);
     messageArea.setEditable(false);
 
@@ -228,17 +290,20 @@ private JPanel createUpdatePanel() {
 
     // Populate fields with the current investment
     Runnable updateFields = () -> {
-        if (portfolio.getInvestments().isEmpty()) {
+        // Read one snapshot so a concurrent sell cannot shift the list while it is shown
+        List<Investment> investments = portfolio.getInvestments();
+        if (investments.isEmpty()) {
             symbolField.setText("");
             nameField.setText("");
             priceField.setText("");
             messageArea.setText("No investments to update.");
         } else {
-            Investment current = portfolio.getInvestments().get(currentIndex[0]);
+            currentIndex[0] = Math.min(currentIndex[0], investments.size() - 1);
+            Investment current = investments.get(currentIndex[0]);
             symbolField.setText(current.getSymbol());
             nameField.setText(current.getName());
             priceField.setText(String.valueOf(current.getPrice()));
-            messageArea.setText("Viewing investment " + (currentIndex[0] + 1) + " of " + portfolio.getInvestments().size());
+            messageArea.setText("Viewing investment " + (currentIndex[0] + 1) + " of " + investments.size());
         }
     };
 
@@ -254,35 +319,30 @@ private JPanel createUpdatePanel() {
     // Buttons for navigation and saving
     JButton prevButton = new JButton("Previous");
     prevButton.addActionListener(e -> {
-        if (!portfolio.getInvestments().isEmpty()) {
-            currentIndex[0] = (currentIndex[0] - 1 + portfolio.getInvestments().size()) % portfolio.getInvestments().size();
+        int size = portfolio.getInvestments().size();
+        if (size > 0) {
+            currentIndex[0] = (Math.min(currentIndex[0], size - 1) - 1 + size) % size;
             updateFields.run();
         }
     });
 
     JButton nextButton = new JButton("Next");
     nextButton.addActionListener(e -> {
-        if (!portfolio.getInvestments().isEmpty()) {
-            currentIndex[0] = (currentIndex[0] + 1) % portfolio.getInvestments().size();
+        int size = portfolio.getInvestments().size();
+        if (size > 0) {
+            currentIndex[0] = (currentIndex[0] + 1) % size;
             updateFields.run();
         }
     });
 
     JButton saveButton = new JButton("Save");
     saveButton.addActionListener(e -> {
-        if (!portfolio.getInvestments().isEmpty()) {
+        // Update the holding shown on screen by its symbol, even if other holdings were sold since
+        String symbol = symbolField.getText().trim();
+        if (!symbol.isEmpty()) {
             try {
                 double newPrice = Double.parseDouble(priceField.getText().trim());
-    
-                if (newPrice <= 0) {
-                    messageArea.setText("Error: Price must be a positive value.");
-                    return;
-                }
-    
-                Investment currentInvestment = portfolio.getInvestments().get(currentIndex[0]);
-                currentInvestment.setPrice(newPrice);
-                messageArea.setText("Price updated successfully for " + currentInvestment.getSymbol() 
-                    + " (" + currentInvestment.getType() + ").");
+                messageArea.setText(portfolio.updatePrice(symbol, newPrice));
             } catch (NumberFormatException ex) {
                 messageArea.setText("Error: Invalid price. Please enter a valid number.");
             }
@@ -316,15 +376,30 @@ private JPanel createSearchPanel() {
     JTextField keywordsField = new JTextField(20);
     JTextField lowPriceField = new JTextField(20);
     JTextField highPriceField = new JTextField(20);
+    SymbolAutocomplete.install(symbolField, autocompleteIndex, null);
+    JComboBox<InvestmentQuery.SortOrder> sortComboBox = new JComboBox<>(InvestmentQuery.SortOrder.values());
 
-    // Buttons for search and reset
+    // Buttons for search, next page and reset
     JButton searchButton = new JButton("Search");
+    JButton moreButton = new JButton("More");
+    moreButton.setEnabled(false);
     JButton resetButton = new JButton("Reset");
 
     // Text area to display results
     JTextArea messageArea = new JTextArea(10, 40);
     messageArea.setEditable(false);
 
+    // Cursor over the results of the last search
+    SearchCursor[] cursor = {null};
+
+    // Shows the next page of the current search
+    Runnable showNextPage = () -> {
+        for (Investment investment : cursor[0].nextPage()) {
+            messageArea.append(investment + "\n");
+        }
+        moreButton.setEnabled(cursor[0].hasNext());
+    };
+
     // Action listener for the Search button
     searchButton.addActionListener(e -> {
         try {
@@ -337,31 +412,33 @@ private JPanel createSearchPanel() {
             Double lowPrice = lowPriceText.isEmpty() ? null : Double.parseDouble(lowPriceText);
             Double highPrice = highPriceText.isEmpty() ? null : Double.parseDouble(highPriceText);
 
-            // Build the search result
-            StringBuilder result = new StringBuilder();
-
-            for (Investment investment : portfolio.getInvestments()) {
-                boolean matchesSymbol = symbol.isEmpty() || investment.getSymbol().equalsIgnoreCase(symbol);
-                boolean matchesKeywords = keywords.isEmpty() || investment.getName().toLowerCase().contains(keywords.toLowerCase());
-                boolean matchesPriceRange = (lowPrice == null || investment.getPrice() >= lowPrice) &&
-                                            (highPrice == null || investment.getPrice() <= highPrice);
-
-                if (matchesSymbol && matchesKeywords && matchesPriceRange) {
-                    result.append(investment).append("\n");
-                }
-            }
-
-            // Update message area
-            if (result.length() > 0) {
-                messageArea.setText(result.toString());
+            // Open a cursor over the matches and show the first page
+            InvestmentQuery query = new InvestmentQuery()
+                .symbol(symbol)
+                .keywords(keywords)
+                .priceRange(lowPrice, highPrice)
+                .sortBy((InvestmentQuery.SortOrder) sortComboBox.getSelectedItem());
+            cursor[0] = query.cursor(portfolio.snapshot(), SEARCH_PAGE_SIZE);
+
+            messageArea.setText("");
+            if (cursor[0].hasNext()) {
+                showNextPage.run();
             } else {
                 messageArea.setText("No investments found matching the criteria.");
+                moreButton.setEnabled(false);
             }
         } catch (NumberFormatException ex) {
             messageArea.setText("Error: Invalid price input. Please enter valid numeric values for low and high prices.");
         }
     });
 
+    // Action listener for the More button
+    moreButton.addActionListener(e -> {
+        if (cursor[0] != null && cursor[0].hasNext()) {
+            showNextPage.run();
+        }
+    });
+
     // Action listener for the Reset button
     resetButton.addActionListener(e -> {
         // Clear all fields and message area
@@ -369,7 +446,10 @@ private JPanel createSearchPanel() {
         keywordsField.setText("");
         lowPriceField.setText("");
         highPriceField.setText("");
+        sortComboBox.setSelectedIndex(0);
         messageArea.setText("");
+        cursor[0] = null;
+        moreButton.setEnabled(false);
     });
 
     // Create form panel with all input fields and labels
@@ -382,10 +462,13 @@ private JPanel createSearchPanel() {
     formPanel.add(lowPriceField);
     formPanel.add(new JLabel("High Price:"));
     formPanel.add(highPriceField);
+    formPanel.add(new JLabel("Sort By:"));
+    formPanel.add(sortComboBox);
 
-    // Add search and reset buttons
+    // Add search, more and reset buttons
     JPanel buttonPanel = new JPanel();
     buttonPanel.add(searchButton);
+    buttonPanel.add(moreButton);
     buttonPanel.add(resetButton);
 
     // Add components to the main panel
@@ -415,7 +498,9 @@ private JPanel createGetGainPanel() {
 
     // Action listener for Calculate Gain button
     calculateButton.addActionListener(e -> {
-        if (portfolio.getInvestments().isEmpty()) {
+        // Report on one consistent version of the portfolio
+        List<Investment> investments = portfolio.getInvestments();
+        if (investments.isEmpty()) {
             gainField.setText("0.00");
             messageArea.setText("No investments to calculate gains.");
             return;
@@ -423,7 +508,7 @@ private JPanel createGetGainPanel() {
 
         double totalGain = 0.0;
         StringBuilder gainMessage = new StringBuilder("Gains by Investment:\n");
-        for (Investment investment : portfolio.getInvestments()) {
+        for (Investment investment : investments) {
             double gain = investment.getGain();
             totalGain += gain;
             gainMessage.append(investment.getSymbol())
@@ -447,6 +532,161 @@ private JPanel createGetGainPanel() {
 
     return panel;
 }
+
+// Top Movers Panel
+private JPanel createMoversPanel() {
+    JPanel panel = new JPanel(new BorderLayout());
+
+    // Controls for the ranking measure and the number of holdings shown
+    JComboBox<PortfolioRankings.Measure> measureComboBox = new JComboBox<>(PortfolioRankings.Measure.values());
+    JSpinner countSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 100, 1));
+
+    // Text areas for the highest and lowest ranked holdings
+    JTextArea topArea = new JTextArea(10, 20);
+    topArea.setEditable(false);
+    JTextArea bottomArea = new JTextArea(10, 20);
+    bottomArea.setEditable(false);
+
+    // Reads the maintained rankings; never iterates the portfolio
+    Runnable refresh = () -> {
+        PortfolioRankings.Measure measure = (PortfolioRankings.Measure) measureComboBox.getSelectedItem();
+        int count = (Integer) countSpinner.getValue();
+
+        StringBuilder top = new StringBuilder();
+        for (PortfolioRankings.Entry entry : rankings.top(measure, count)) {
+            top.append(entry).append("\n");
+        }
+        StringBuilder bottom = new StringBuilder();
+        for (PortfolioRankings.Entry entry : rankings.bottom(measure, count)) {
+            bottom.append(entry).append("\n");
+        }
+        topArea.setText(top.toString());
+        bottomArea.setText(bottom.toString());
+    };
+
+    measureComboBox.addActionListener(e -> refresh.run());
+    countSpinner.addChangeListener(e -> refresh.run());
+    rankings.addChangeListener(() -> SwingUtilities.invokeLater(refresh));
+
+    // Panel for the controls
+    JPanel formPanel = new JPanel(new FlowLayout());
+    formPanel.add(new JLabel("Rank by:"));
+    formPanel.add(measureComboBox);
+    formPanel.add(new JLabel("Show:"));
+    formPanel.add(countSpinner);
+
+    // Panel for the top and bottom lists side by side
+    JPanel listPanel = new JPanel(new GridLayout(1, 2));
+    JPanel topPanel = new JPanel(new BorderLayout());
+    topPanel.add(new JLabel("Top:"), BorderLayout.NORTH);
+    topPanel.add(new JScrollPane(topArea), BorderLayout.CENTER);
+    JPanel bottomPanel = new JPanel(new BorderLayout());
+    bottomPanel.add(new JLabel("Bottom:"), BorderLayout.NORTH);
+    bottomPanel.add(new JScrollPane(bottomArea), BorderLayout.CENTER);
+    listPanel.add(topPanel);
+    listPanel.add(bottomPanel);
+
+    panel.add(formPanel, BorderLayout.NORTH);
+    panel.add(listPanel, BorderLayout.CENTER);
+
+    return panel;
+}
+
+// Alerts Panel
+private JPanel createAlertsPanel() {
+    JPanel panel = new JPanel(new BorderLayout());
+
+    // Define text fields and combo box for the rule
+    JComboBox<AlertRule.Metric> metricComboBox = new JComboBox<>(AlertRule.Metric.values());
+    JTextField symbolField = new JTextField(20);
+    JTextField lowField = new JTextField(20);
+    JTextField highField = new JTextField(20);
+
+    // Text area listing rules and fired alerts
+    alertLogArea = new JTextArea(10, 40);
+    alertLogArea.setEditable(false);
+
+    // Action listener for the Add Alert button
+    JButton addButton = new JButton("Add Alert");
+    addButton.addActionListener(e -> {
+        try {
+            String lowText = lowField.getText().trim();
+            String highText = highField.getText().trim();
+
+            // Blank bounds are unbounded
+            double low = lowText.isEmpty() ? Double.NEGATIVE_INFINITY : Double.parseDouble(lowText);
+            double high = highText.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(highText);
+
+            AlertRule rule = new AlertRule(symbolField.getText(), (AlertRule.Metric) metricComboBox.getSelectedItem(), low, high);
+            alertEngine.addRule(rule);
+            alertLogArea.append("Added alert: " + rule + "\n");
+        } catch (NumberFormatException ex) {
+            alertLogArea.append("Error: Invalid bound. Please enter valid numeric values for low and high.\n");
+        } catch (IllegalArgumentException ex) {
+            alertLogArea.append("Error: " + ex.getMessage() + "\n");
+        }
+    });
+
+    // Action listener for the Reset button
+    JButton resetButton = new JButton("Reset");
+    resetButton.addActionListener(e -> {
+        symbolField.setText("");
+        lowField.setText("");
+        highField.setText("");
+    });
+
+    // Create form panel with fields
+    JPanel formPanel = new JPanel(new GridLayout(4, 2));
+    formPanel.add(new JLabel("Watch:"));
+    formPanel.add(metricComboBox);
+    formPanel.add(new JLabel("Symbol:"));
+    formPanel.add(symbolField);
+    formPanel.add(new JLabel("Low:"));
+    formPanel.add(lowField);
+    formPanel.add(new JLabel("High:"));
+    formPanel.add(highField);
+
+    JPanel buttonPanel = new JPanel();
+    buttonPanel.add(addButton);
+    buttonPanel.add(resetButton);
+
+    panel.add(formPanel, BorderLayout.CENTER);
+    panel.add(buttonPanel, BorderLayout.EAST);
+    panel.add(new JScrollPane(alertLogArea), BorderLayout.SOUTH);
+
+    return panel;
+}
+
+// Logs the alerts fired by one change and shows them in a single notification,
+// without blocking the rest of the application
+private void showAlerts(List<AlertRule> rules, double value) {
+    String now = " (now " + String.format("%.2f", value) + ")";
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; i < Math.min(rules.size(), MAX_LOGGED_ALERTS); i++) {
+        log.append("Alert: ").append(rules.get(i)).append(now).append("\n");
+    }
+    if (rules.size() > MAX_LOGGED_ALERTS) {
+        log.append("... and ").append(rules.size() - MAX_LOGGED_ALERTS).append(" more alerts").append(now).append("\n");
+    }
+    alertLogArea.append(log.toString());
+
+    String message = "Alert: " + rules.get(0) + now;
+    if (rules.size() > 1) {
+        message += "\n... and " + (rules.size() - 1) + " more. See the Alerts panel for details.";
+    }
+
+    // Reuse the open notification instead of stacking a new window per alert
+    if (alertDialog == null) {
+        alertPane = new JOptionPane(message, JOptionPane.WARNING_MESSAGE);
+        alertDialog = alertPane.createDialog(frame, "ePortfolio Alert");
+        alertDialog.setModal(false);
+    } else {
+        alertPane.setMessage(message);
+        alertPane.setValue(JOptionPane.UNINITIALIZED_VALUE);  // Let OK close the reused dialog again
+        alertDialog.pack();
+    }
+    alertDialog.setVisible(true);
+}
 private Runnable updateFields = new Runnable() {
         @Override
         public void run() {
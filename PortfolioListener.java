@@ -0,0 +1,20 @@
+/**
+ * Receives notifications when a holding in a Portfolio changes.
+ * Listeners are called on the thread that performed the change, so they should return quickly.
+ */
+public interface PortfolioListener {
+
+    /**
+     * Called after an investment has been bought, partially sold, or had its price updated.
+     * 
+     * @param investment the investment in its new state
+     */
+    void investmentUpdated(Investment investment);
+
+    /**
+     * Called after an investment has been completely sold and removed from the portfolio.
+     * 
+     * @param investment the investment that was removed
+     */
+    void investmentRemoved(Investment investment);
+}
@@ -0,0 +1,182 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the holdings of a portfolio ranked by gain, gain percent and market value.
+ * Each ranking is a sorted set updated incrementally on every buy, sell and price change,
+ * so the top and bottom entries can be read without scanning the portfolio.
+ */
+public class PortfolioRankings implements PortfolioListener {
+
+    /**
+     * The value holdings are ranked by.
+     */
+    public enum Measure {
+        GAIN("Gain"),
+        GAIN_PERCENT("Gain %"),
+        MARKET_VALUE("Market Value");
+
+        private final String label;
+
+        Measure(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets the value of this measure for an investment.
+         * 
+         * @param investment the investment to measure
+         * @return the measured value
+         */
+        public double valueOf(Investment investment) {
+            switch (this) {
+                case GAIN:
+                    return investment.getGain();
+                case GAIN_PERCENT:
+                    return investment.getGainPercent();
+                default:
+                    return investment.getMarketValue();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * A ranked holding. Entries are immutable copies of the ranked values, so a ranking
+     * never changes order underneath its sorted set.
+     */
+    public static class Entry {
+        private final String symbol;  // Symbol of the holding
+        private final String type;    // Type of the holding
+        private final double value;   // Ranked value
+
+        private Entry(String symbol, String type, double value) {
+            this.symbol = symbol;
+            this.type = type;
+            this.value = value;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return symbol + " (" + type + "): " + String.format("%.2f", value);
+        }
+    }
+
+    // Orders by value, then by symbol so that equal values remain distinct entries
+    private static final Comparator<Entry> ORDER =
+        Comparator.comparingDouble(Entry::getValue).thenComparing(Entry::getSymbol);
+
+    private final Map<Measure, TreeSet<Entry>> rankings;             // Sorted entries per measure
+    private final Map<String, Map<Measure, Entry>> entriesBySymbol;  // Current entries of each holding
+    private final List<Runnable> changeListeners;                    // Listeners run after a ranking changes
+
+    /**
+     * Constructor to initialize empty rankings.
+     */
+    public PortfolioRankings() {
+        this.rankings = new EnumMap<>(Measure.class);
+        for (Measure measure : Measure.values()) {
+            rankings.put(measure, new TreeSet<>(ORDER));
+        }
+        this.entriesBySymbol = new HashMap<>();
+        this.changeListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Adds a listener that is run after the rankings change.
+     * @param listener The listener to add.
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Gets the holdings with the highest values, highest first.
+     * @param measure The measure to rank by.
+     * @param n The maximum number of holdings to return.
+     * @return Up to n entries.
+     */
+    public synchronized List<Entry> top(Measure measure, int n) {
+        return first(rankings.get(measure).descendingIterator(), n);
+    }
+
+    /**
+     * Gets the holdings with the lowest values, lowest first.
+     * @param measure The measure to rank by.
+     * @param n The maximum number of holdings to return.
+     * @return Up to n entries.
+     */
+    public synchronized List<Entry> bottom(Measure measure, int n) {
+        return first(rankings.get(measure).iterator(), n);
+    }
+
+    @Override
+    public void investmentUpdated(Investment investment) {
+        synchronized (this) {
+            String symbol = investment.getSymbol().toUpperCase();
+            Map<Measure, Entry> entries = entriesBySymbol.computeIfAbsent(symbol, s -> new EnumMap<>(Measure.class));
+            for (Measure measure : Measure.values()) {
+                Entry entry = new Entry(symbol, investment.getType(), measure.valueOf(investment));
+                Entry previous = entries.put(measure, entry);
+                if (previous != null) {
+                    rankings.get(measure).remove(previous);
+                }
+                rankings.get(measure).add(entry);
+            }
+        }
+        fireChanged();
+    }
+
+    @Override
+    public void investmentRemoved(Investment investment) {
+        synchronized (this) {
+            Map<Measure, Entry> entries = entriesBySymbol.remove(investment.getSymbol().toUpperCase());
+            if (entries == null) {
+                return;
+            }
+            for (Map.Entry<Measure, Entry> entry : entries.entrySet()) {
+                rankings.get(entry.getKey()).remove(entry.getValue());
+            }
+        }
+        fireChanged();
+    }
+
+    // Copies up to n entries from a ranking iterator
+    private static List<Entry> first(Iterator<Entry> iterator, int n) {
+        List<Entry> result = new ArrayList<>();
+        while (result.size() < n && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    // Notifies listeners that the rankings changed
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A read-only HTTP/JSON interface to a portfolio, for other local services.
+ * It listens on the loopback address only and serves:
+ * <ul>
+ *   <li>GET /holdings/{symbol} - one holding</li>
+ *   <li>GET /search?symbol=&amp;keywords=&amp;low=&amp;high=&amp;sort=&amp;offset=&amp;limit= - matching holdings</li>
+ *   <li>GET /range?low=&amp;high=&amp;offset=&amp;limit= - holdings in a price range</li>
+ *   <li>GET /gain - total gain</li>
+ * </ul>
+ * Every request reads one PortfolioSnapshot, so it never waits for or delays a trade.
+ * JSON is written straight from the snapshot to the response. Responses are cached with the
+ * snapshot version they were built from, so any change to the portfolio invalidates them.
+ * Requests run on virtual threads when the JDK provides them, otherwise on a thread pool.
+ */
+public class PortfolioServer {
+    private static final int DEFAULT_LIMIT = 100;          // Results per page when no limit is given
+    private static final int MAX_LIMIT = 1000;             // Largest page a client may request
+    private static final int MAX_CACHED_BYTES = 64 * 1024; // Larger responses are not cached
+    private static final int MAX_CACHED_RESPONSES = 4096;  // Cache is emptied when it grows past this
+
+    private final Portfolio portfolio;                // Portfolio being served
+    private final HttpServer server;                  // JDK built-in HTTP server
+    private final ExecutorService executor;           // Threads handling requests
+    private final Map<String, CachedResponse> cache;  // Responses by request URI
+
+    /**
+     * Constructor for creating a server for a portfolio. The server does not accept
+     * requests until it is started.
+     *
+     * @param portfolio the portfolio to serve
+     * @param port the loopback port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PortfolioServer(Portfolio portfolio, int port) throws IOException {
+        this.portfolio = portfolio;
+        this.cache = new ConcurrentHashMap<>();
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/holdings/", cached(this::holding));
+        server.createContext("/search", cached((exchange, snapshot, response) ->
+            search(exchange, snapshot, response, false)));
+        server.createContext("/range", cached((exchange, snapshot, response) ->
+            search(exchange, snapshot, response, true)));
+        server.createContext("/gain", cached(this::gain));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and shuts down the request threads.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // GET /holdings/{symbol}
+    private void holding(HttpExchange exchange, PortfolioSnapshot snapshot, Response response) throws IOException {
+        String symbol = exchange.getRequestURI().getPath().substring("/holdings/".length()).trim();
+        if (symbol.isEmpty()) {
+            response.error(400, "Invalid parameter: symbol is required.");
+            return;
+        }
+        Investment investment = snapshot.get(symbol);
+        if (investment == null) {
+            response.error(404, "Investment with symbol " + symbol + " not found.");
+            return;
+        }
+        Writer out = response.begin(200);
+        writeInvestment(out, investment);
+    }
+
+    // GET /search and GET /range
+    private void search(HttpExchange exchange, PortfolioSnapshot snapshot, Response response, boolean rangeOnly)
+            throws IOException {
+        Map<String, String> parameters = parameters(exchange);
+        InvestmentQuery query = new InvestmentQuery();
+        int offset;
+        int limit;
+        try {
+            if (!rangeOnly) {
+                query.symbol(parameters.get("symbol")).keywords(parameters.get("keywords"));
+                if (parameters.containsKey("sort")) {
+                    query.sortBy(InvestmentQuery.SortOrder.valueOf(parameters.get("sort").toUpperCase()));
+                }
+            }
+            query.priceRange(number(parameters.get("low")), number(parameters.get("high")));
+            offset = Integer.parseInt(parameters.getOrDefault("offset", "0"));
+            limit = Math.min(Integer.parseInt(parameters.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT))), MAX_LIMIT);
+            query.offset(offset);
+        } catch (IllegalArgumentException ex) {
+            response.error(400, "Invalid parameter: " + ex.getMessage());
+            return;
+        }
+        if (limit <= 0) {
+            response.error(400, "Invalid parameter: limit must be positive.");
+            return;
+        }
+
+        SearchCursor cursor = query.cursor(snapshot, limit);
+        List<Investment> page = cursor.nextPage();
+        Writer out = response.begin(200);
+        out.write("{\"version\":" + snapshot.getVersion() + ",\"offset\":" + offset + ",\"results\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeInvestment(out, page.get(i));
+        }
+        out.write("],\"nextOffset\":" + (cursor.hasNext() ? String.valueOf(cursor.getNextOffset()) : "null") + "}");
+    }
+
+    // GET /gain
+    private void gain(HttpExchange exchange, PortfolioSnapshot snapshot, Response response) throws IOException {
+        double totalGain = BatchValuation.totalGain(snapshot.getInvestments());
+        Writer out = response.begin(200);
+        out.write("{\"version\":" + snapshot.getVersion() + ",\"holdings\":" + snapshot.size()
+            + ",\"totalGain\":" + totalGain + "}");
+    }
+
+    // Wraps an endpoint with path and method checks and the version-stamped response cache.
+    // Contexts are matched by prefix, so only a context ending in '/' accepts a longer path.
+    private HttpHandler cached(Endpoint endpoint) {
+        return exchange -> {
+            try {
+                String contextPath = exchange.getHttpContext().getPath();
+                if (!contextPath.endsWith("/") && !contextPath.equals(exchange.getRequestURI().getPath())) {
+                    Response response = new Response(exchange);
+                    response.error(404, "Not found.");
+                    response.finish();
+                    return;
+                }
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", "GET");
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                PortfolioSnapshot snapshot = portfolio.snapshot();
+                String key = exchange.getRequestURI().toString();
+                CachedResponse cachedResponse = cache.get(key);
+                if (cachedResponse != null && cachedResponse.version == snapshot.getVersion()) {
+                    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                    exchange.sendResponseHeaders(cachedResponse.status, cachedResponse.body.length);
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        body.write(cachedResponse.body);
+                    }
+                    return;
+                }
+
+                Response response = new Response(exchange);
+                endpoint.handle(exchange, snapshot, response);
+                byte[] body = response.finish();
+                if (body != null) {
+                    if (cache.size() >= MAX_CACHED_RESPONSES) {
+                        cache.clear();
+                    }
+                    cache.put(key, new CachedResponse(snapshot.getVersion(), response.status, body));
+                }
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    // Writes one investment as a JSON object
+    private static void writeInvestment(Writer out, Investment investment) throws IOException {
+        out.write("{\"symbol\":");
+        writeString(out, investment.getSymbol());
+        out.write(",\"name\":");
+        writeString(out, investment.getName());
+        out.write(",\"type\":");
+        writeString(out, investment.getType());
+        out.write(",\"quantity\":" + investment.getQuantity());
+        out.write(",\"price\":" + investment.getPrice());
+        out.write(",\"bookValue\":" + investment.getBookValue());
+        out.write(",\"gain\":" + investment.getGain() + "}");
+    }
+
+    // Writes a JSON string literal
+    private static void writeString(Writer out, String text) throws IOException {
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    // Parses an optional numeric parameter
+    private static Double number(String text) {
+        return text == null || text.isEmpty() ? null : Double.valueOf(text);
+    }
+
+    // Decodes the query string of a request
+    private static Map<String, String> parameters(HttpExchange exchange) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                    URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return parameters;
+    }
+
+    // Uses one virtual thread per request on JDKs that have them (21+), otherwise a cached pool
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "portfolio-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Produces the response of one endpoint from a snapshot.
+     */
+    private interface Endpoint {
+        void handle(HttpExchange exchange, PortfolioSnapshot snapshot, Response response) throws IOException;
+    }
+
+    /**
+     * A response being streamed to the client while a copy is kept for the cache,
+     * as long as it stays small enough.
+     */
+    private static final class Response {
+        private final HttpExchange exchange;       // Exchange being answered
+        private final ByteArrayOutputStream copy;  // Copy of the body for the cache, emptied once too large
+        private Writer writer;                     // Writer to the client, null until begun
+        private int status;                        // Status code sent
+
+        Response(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.copy = new ByteArrayOutputStream();
+        }
+
+        // Sends the headers and returns a writer for a streamed JSON body
+        Writer begin(int status) throws IOException {
+            this.status = status;
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, 0);
+            OutputStream body = exchange.getResponseBody();
+            writer = new OutputStreamWriter(new OutputStream() {
+                private boolean caching = true;
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] {(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    body.write(bytes, offset, length);
+                    if (caching && copy.size() + length <= MAX_CACHED_BYTES) {
+                        copy.write(bytes, offset, length);
+                    } else {
+                        caching = false;
+                        copy.reset();
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!caching) {
+                        copy.reset();
+                    }
+                    body.close();
+                }
+            }, StandardCharsets.UTF_8);
+            return writer;
+        }
+
+        // Sends a JSON error message
+        void error(int status, String message) throws IOException {
+            Writer out = begin(status);
+            out.write("{\"error\":");
+            writeString(out, message);
+            out.write('}');
+        }
+
+        // Completes the response and returns the body to cache, or null if it is not cacheable
+        byte[] finish() throws IOException {
+            if (writer == null) {
+                return null;
+            }
+            writer.close();
+            return copy.size() > 0 ? copy.toByteArray() : null;
+        }
+    }
+
+    /**
+     * A complete response and the snapshot version it was built from.
+     */
+    private static final class CachedResponse {
+        private final long version;  // Snapshot version of the response
+        private final int status;    // Status code
+        private final byte[] body;   // JSON body
+
+        CachedResponse(long version, int status, byte[] body) {
+            this.version = version;
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
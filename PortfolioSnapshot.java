@@ -0,0 +1,95 @@
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A consistent, read-only version of a portfolio's holdings.
+ * A snapshot never changes after it is taken: later buys, sells and price updates create a
+ * new version that shares unchanged holdings with this one, so long-running readers see
+ * one state of the portfolio without locking out writers.
+ * The investments in a snapshot must be treated as read-only.
+ */
+public final class PortfolioSnapshot {
+
+    /**
+     * The snapshot of a new, empty portfolio.
+     */
+    static final PortfolioSnapshot EMPTY = new PortfolioSnapshot(0, PersistentHoldings.EMPTY,
+        PersistentSymbolIndex.EMPTY);
+
+    private final long version;                  // Version number, increased by every change
+    private final PersistentHoldings holdings;   // Holdings of this version in insertion order
+    private final PersistentSymbolIndex symbols; // Sequence key of each held symbol in this version
+
+    PortfolioSnapshot(long version, PersistentHoldings holdings, PersistentSymbolIndex symbols) {
+        this.version = version;
+        this.holdings = holdings;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Gets the version number of this snapshot.
+     * @return The version number.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the number of holdings in this snapshot.
+     * @return The number of holdings.
+     */
+    public int size() {
+        return holdings.size();
+    }
+
+    /**
+     * Checks whether this snapshot has no holdings.
+     * @return True if there are no holdings.
+     */
+    public boolean isEmpty() {
+        return holdings.isEmpty();
+    }
+
+    /**
+     * Gets the holding with a symbol without scanning the holdings.
+     * @param symbol The symbol to look up, in any case.
+     * @return The holding, or null if this snapshot does not hold the symbol.
+     */
+    public Investment get(String symbol) {
+        Long sequence = symbols.get(symbol.toUpperCase());
+        return sequence == null ? null : holdings.get(sequence);
+    }
+
+    /**
+     * Gets the holdings of this snapshot as an unmodifiable list in insertion order.
+     * The list is a view of the snapshot and is not copied.
+     * @return A list of investments.
+     */
+    public List<Investment> getInvestments() {
+        return new AbstractList<Investment>() {
+            @Override
+            public Investment get(int index) {
+                return holdings.getAt(index);
+            }
+
+            @Override
+            public int size() {
+                return holdings.size();
+            }
+
+            @Override
+            public Iterator<Investment> iterator() {
+                return holdings.iterator();
+            }
+        };
+    }
+
+    PersistentHoldings getHoldings() {
+        return holdings;
+    }
+
+    PersistentSymbolIndex getSymbols() {
+        return symbols;
+    }
+}
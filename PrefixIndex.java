@@ -0,0 +1,119 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable, compact index from upper-case keys to instruments, searchable by prefix.
+ * All keys are stored sorted in one shared character array, so a prefix lookup is a binary
+ * search followed by a walk over the keys that start with the prefix, in alphabetical order.
+ * This keeps a security master of hundreds of thousands of keys in a few flat arrays
+ * instead of one object per trie node.
+ */
+final class PrefixIndex {
+    private final char[] keys;               // All keys, sorted and concatenated
+    private final int[] offsets;             // Start of each key in keys; the last entry is keys.length
+    private final Instrument[] instruments;  // Instrument of each key
+
+    private PrefixIndex(char[] keys, int[] offsets, Instrument[] instruments) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.instruments = instruments;
+    }
+
+    /**
+     * Builds an index from parallel lists of keys and instruments.
+     * @param keys The upper-case keys.
+     * @param instruments The instrument of each key.
+     * @return The index.
+     */
+    static PrefixIndex build(List<String> keys, List<Instrument> instruments) {
+        Integer[] order = new Integer[keys.size()];
+        int length = 0;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            length += keys.get(i).length();
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+
+        char[] sortedKeys = new char[length];
+        int[] offsets = new int[order.length + 1];
+        Instrument[] sortedInstruments = new Instrument[order.length];
+        int position = 0;
+        for (int i = 0; i < order.length; i++) {
+            String key = keys.get(order[i]);
+            key.getChars(0, key.length(), sortedKeys, position);
+            offsets[i] = position;
+            position += key.length();
+            sortedInstruments[i] = instruments.get(order[i]);
+        }
+        offsets[order.length] = position;
+        return new PrefixIndex(sortedKeys, offsets, sortedInstruments);
+    }
+
+    /**
+     * Gets the number of keys in the index.
+     * @return The number of keys.
+     */
+    int size() {
+        return instruments.length;
+    }
+
+    /**
+     * Adds the instruments of keys starting with a prefix, in key order, until the list is full.
+     * Instruments whose symbol is already in the seen set are skipped.
+     * @param prefix The upper-case prefix.
+     * @param limit The size at which the list is full.
+     * @param seen The symbols already suggested; updated with the added symbols.
+     * @param suggestions The list to add to.
+     */
+    void collect(String prefix, int limit, Set<String> seen, List<Instrument> suggestions) {
+        for (int i = lowerBound(prefix); i < size() && suggestions.size() < limit && startsWith(i, prefix); i++) {
+            if (seen.add(instruments[i].getSymbol())) {
+                suggestions.add(instruments[i]);
+            }
+        }
+    }
+
+    // Finds the first key that is not less than the prefix
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Compares a stored key with a string, like String.compareTo
+    private int compare(int index, String other) {
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        int common = Math.min(length, other.length());
+        for (int i = 0; i < common; i++) {
+            int difference = keys[start + i] - other.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - other.length();
+    }
+
+    private boolean startsWith(int index, String prefix) {
+        int start = offsets[index];
+        if (offsets[index + 1] - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (keys[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Returns the results of an InvestmentQuery one page at a time.
+ * Each page is pulled from the query's lazy stream only when it is requested.
+ */
+public class SearchCursor {
+    private final Iterator<Investment> results;  // Remaining results of the query
+    private final int pageSize;                  // Number of results per page
+    private int position;                        // Offset of the next result among all matches
+
+    /**
+     * Constructor for creating a cursor over query results.
+     * 
+     * @param results the results of the query
+     * @param offset the offset of the first result among all matches
+     * @param pageSize the number of results per page
+     */
+    SearchCursor(Iterator<Investment> results, int offset, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        this.results = results;
+        this.position = offset;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Checks whether another page is available.
+     * @return True if there are more results.
+     */
+    public boolean hasNext() {
+        return results.hasNext();
+    }
+
+    /**
+     * Gets the next page of results.
+     * @return Up to one page of results, empty if there are no more.
+     */
+    public List<Investment> nextPage() {
+        List<Investment> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && results.hasNext()) {
+            page.add(results.next());
+        }
+        position += page.size();
+        return page;
+    }
+
+    /**
+     * Gets the offset of the next result among all matches. Passing it to
+     * InvestmentQuery.offset() continues the search in a new query.
+     * @return The offset of the next result.
+     */
+    public int getNextOffset() {
+        return position;
+    }
+}
@@ -5,6 +5,8 @@
  */
 public class Stock extends Investment {
     private static final double COMMISSION_RATE = 9.99;
+    private static final BatchValuation.GainKernel GAIN_KERNEL =
+        BatchValuation.fixedFeeKernel(COMMISSION_RATE); // Gain formula, also used by BatchValuation
 
     /**
      * Constructor for creating a Stock object.
@@ -48,6 +50,17 @@ public class Stock extends Investment {
      */
     @Override
     public double getGain() {
-        return (quantity * price) - bookValue - COMMISSION_RATE;
+        return GAIN_KERNEL.totalGain(quantity * price, bookValue, 1);
+    }
+
+    /**
+     * Gets the gain formula of stocks, which getGain() also uses.
+     * A subclass may override getGain(), so it is valued one by one instead.
+     * 
+     * @return the gain kernel, or null for a subclass
+     */
+    @Override
+    BatchValuation.GainKernel getGainKernel() {
+        return getClass() == Stock.class ? GAIN_KERNEL : null;
     }
 }
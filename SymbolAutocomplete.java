@@ -0,0 +1,190 @@
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Shows symbol suggestions from an AutocompleteIndex below a text field while the user types.
+ * Lookups start once typing pauses and run on a background thread; results for text that
+ * has changed in the meantime are discarded.
+ */
+public class SymbolAutocomplete {
+    private static final int DEBOUNCE_MILLIS = 150;  // Pause in typing before a lookup starts
+    private static final int MAX_SUGGESTIONS = 8;    // Suggestions shown at once
+
+    private final JTextField field;                       // Field being completed
+    private final AutocompleteIndex index;                // Source of suggestions
+    private final Consumer<Instrument> onSelect;          // Called after a suggestion is accepted
+    private final DefaultListModel<Instrument> model;     // Suggestions currently shown
+    private final JList<Instrument> list;                 // List displaying the suggestions
+    private final JPopupMenu popup;                       // Popup holding the list below the field
+    private final Timer debounce;                         // Starts a lookup once typing pauses
+    private SwingWorker<List<Instrument>, Void> pending;  // Lookup in progress, if any
+    private boolean accepting;                            // True while the field is set from a suggestion
+
+    private SymbolAutocomplete(JTextField field, AutocompleteIndex index, Consumer<Instrument> onSelect) {
+        this.field = field;
+        this.index = index;
+        this.onSelect = onSelect;
+
+        model = new DefaultListModel<>();
+        list = new JList<>(model);
+        list.setFocusable(false);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        popup = new JPopupMenu();
+        popup.setFocusable(false);
+        popup.add(new JScrollPane(list));
+
+        debounce = new Timer(DEBOUNCE_MILLIS, e -> lookup());
+        debounce.setRepeats(false);
+
+        // Restart the debounce timer on every edit made by the user
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                changed();
+            }
+        });
+
+        // Navigate and accept suggestions from the keyboard
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                int selected = list.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+                    list.setSelectedIndex(Math.min(selected + 1, model.size() - 1));
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_UP) {
+                    list.setSelectedIndex(Math.max(selected - 1, 0));
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_ENTER && selected >= 0) {
+                    accept(model.get(selected));
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    popup.setVisible(false);
+                    e.consume();
+                }
+            }
+        });
+
+        // Accept a suggestion with the mouse
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int selected = list.locationToIndex(e.getPoint());
+                if (selected >= 0) {
+                    accept(model.get(selected));
+                }
+            }
+        });
+
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    /**
+     * Adds autocompletion to a text field.
+     *
+     * @param field the field to complete
+     * @param index the index providing suggestions
+     * @param onSelect called with the accepted instrument after the field is filled in, or null
+     */
+    public static void install(JTextField field, AutocompleteIndex index, Consumer<Instrument> onSelect) {
+        new SymbolAutocomplete(field, index, onSelect);
+    }
+
+    // Schedules a lookup once typing pauses
+    private void changed() {
+        if (!accepting) {
+            debounce.restart();
+        }
+    }
+
+    // Starts a background lookup for the current text, cancelling any earlier one
+    private void lookup() {
+        String prefix = field.getText().trim();
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        if (prefix.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        pending = new SwingWorker<List<Instrument>, Void>() {
+            @Override
+            protected List<Instrument> doInBackground() {
+                return index.suggest(prefix, MAX_SUGGESTIONS);
+            }
+
+            @Override
+            protected void done() {
+                // Ignore results for text the user has already changed
+                if (isCancelled() || !prefix.equals(field.getText().trim())) {
+                    return;
+                }
+                try {
+                    show(get());
+                } catch (InterruptedException | ExecutionException ex) {
+                    popup.setVisible(false);
+                }
+            }
+        };
+        pending.execute();
+    }
+
+    // Shows suggestions below the field, or hides the popup if there are none
+    private void show(List<Instrument> suggestions) {
+        model.clear();
+        for (Instrument suggestion : suggestions) {
+            model.addElement(suggestion);
+        }
+        if (suggestions.isEmpty() || !field.isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+        list.setVisibleRowCount(suggestions.size());
+        list.clearSelection();
+        popup.pack();
+        popup.show(field, 0, field.getHeight());
+    }
+
+    // Fills the field with an accepted suggestion
+    private void accept(Instrument instrument) {
+        popup.setVisible(false);
+        accepting = true;
+        try {
+            field.setText(instrument.getSymbol());
+        } finally {
+            accepting = false;
+        }
+        if (onSelect != null) {
+            onSelect.accept(instrument);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Compares the per-holding getGain() stream with BatchValuation on a large mixed portfolio.
+ * Run with: java ValuationBenchmark [holdings] [rounds]
+ */
+public class ValuationBenchmark {
+    private static final String[] TYPES = {"stock", "mutualfund", "etf", "bond"};
+
+    public static void main(String[] args) {
+        int holdings = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        // Build a portfolio with all four types so getGain() is megamorphic
+        Portfolio portfolio = new Portfolio();
+        Random random = new Random(42);
+        for (int i = 0; i < holdings; i++) {
+            portfolio.buyInvestment(TYPES[random.nextInt(TYPES.length)], "SYM" + i, "Holding " + i,
+                1 + random.nextInt(1000), 1 + random.nextDouble() * 500);
+        }
+        List<Investment> investments = portfolio.snapshot().getInvestments();
+
+        double streamGain = 0.0;
+        double loopGain = 0.0;
+        double batchGain = 0.0;
+        for (int warmup = 0; warmup < rounds; warmup++) {
+            streamGain = streamTotalGain(investments);
+            loopGain = loopTotalGain(investments);
+            batchGain = BatchValuation.totalGain(investments);
+        }
+
+        long streamNanos = time(() -> streamTotalGain(investments), rounds);
+        long loopNanos = time(() -> loopTotalGain(investments), rounds);
+        long batchNanos = time(() -> BatchValuation.totalGain(investments), rounds);
+
+        System.out.printf("Holdings: %d, rounds: %d%n", holdings, rounds);
+        System.out.printf("Stream getGain(): %.3f ms/op (total %.2f)%n", streamNanos / 1e6, streamGain);
+        System.out.printf("Loop getGain():   %.3f ms/op (total %.2f)%n", loopNanos / 1e6, loopGain);
+        System.out.printf("BatchValuation:   %.3f ms/op (total %.2f)%n", batchNanos / 1e6, batchGain);
+    }
+
+    // The valuation path used before BatchValuation
+    private static double streamTotalGain(List<Investment> investments) {
+        return investments.stream().mapToDouble(Investment::getGain).sum();
+    }
+
+    // A plain loop, to separate the cost of virtual getGain() calls from stream overhead
+    private static double loopTotalGain(List<Investment> investments) {
+        double totalGain = 0.0;
+        for (Investment investment : investments) {
+            totalGain += investment.getGain();
+        }
+        return totalGain;
+    }
+
+    // Average time of one call in nanoseconds
+    private static long time(DoubleSupplier valuation, int rounds) {
+        double sink = 0.0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += valuation.getAsDouble();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42.0) {
+            System.out.println();  // Keeps the results live
+        }
+        return elapsed / rounds;
+    }
+}